@@ -0,0 +1,64 @@
+package applications;
+
+import java.util.Random;
+
+/**
+ * Builds seeded random shop specifications for the benchmarks, in the
+ * style of scripts/GenTestCases.rb: change-over times in [0, 32) and
+ * tasks on uniformly chosen machines with times in [1, 32]. Unlike the
+ * script every job has exactly tasksPerJob tasks so that each point of
+ * a benchmark's parameter grid does a predictable amount of work.
+ */
+final class BenchmarkSpecifications {
+    static final long SEED = 4659;
+    private static final int MAX_TIME = 32;
+
+    private BenchmarkSpecifications() {
+    }
+
+    static SimulationSpecification generate(int numMachines, int numJobs, int tasksPerJob) {
+        Random random = new Random(SEED);
+        SimulationSpecification specification = new SimulationSpecification();
+        specification.setNumMachines(numMachines);
+        specification.setNumJobs(numJobs);
+
+        int[] changeOverTimes = new int[numMachines + 1];
+        for (int i = 1; i <= numMachines; ++i) {
+            changeOverTimes[i] = random.nextInt(MAX_TIME);
+        }
+        specification.setChangeOverTimes(changeOverTimes);
+
+        Job[] jobs = new Job[numJobs + 1];
+        for (int i = 1; i <= numJobs; ++i) {
+            jobs[i] = new Job(i);
+            int[] specificationsForTasks = new int[2 * tasksPerJob + 1];
+            for (int j = 1; j <= tasksPerJob; ++j) {
+                specificationsForTasks[2 * (j - 1) + 1] = random.nextInt(numMachines) + 1;
+                specificationsForTasks[2 * (j - 1) + 2] = random.nextInt(MAX_TIME) + 1;
+            }
+            jobs[i].setSpecificationsForTasks(specificationsForTasks);
+        }
+        specification.setJobs(jobs);
+        return specification;
+    }
+
+    /** @return the specification in the text format read by SpecificationReader */
+    static String toText(SimulationSpecification specification) {
+        StringBuilder text = new StringBuilder();
+        text.append(specification.getNumMachines()).append(' ')
+                .append(specification.getNumJobs()).append('\n');
+        for (int i = 1; i <= specification.getNumMachines(); ++i) {
+            text.append(specification.getChangeOverTimes(i)).append(' ');
+        }
+        text.append('\n');
+        for (int i = 1; i <= specification.getNumJobs(); ++i) {
+            text.append(specification.getNumTasks(i)).append('\n');
+            int[] specificationsForTasks = specification.getSpecificationsForTasks(i);
+            for (int j = 1; j < specificationsForTasks.length; ++j) {
+                text.append(specificationsForTasks[j]).append(' ');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
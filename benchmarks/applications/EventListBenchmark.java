@@ -0,0 +1,65 @@
+package applications;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one step of the simulate loop's use of the event list:
+ * find the next machine to finish, read its time, and reschedule it a
+ * little later.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventListBenchmark {
+    private static final int NUM_DELAYS = 1 << 16;
+
+    @Param({"16", "256", "4096", "65536"})
+    public int numMachines;
+
+    @Param({"true", "false"})
+    public boolean useHeap;
+
+    private EventList eList;
+    private int[] delays;
+    private int nextDelay;
+
+    // Restart every iteration so the finish times can't creep up to overflow.
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(BenchmarkSpecifications.SEED);
+        eList = new EventList(numMachines, Integer.MAX_VALUE, useHeap);
+        for (int p = 1; p <= numMachines; ++p) {
+            eList.setFinishTime(p, random.nextInt(64));
+        }
+        delays = new int[NUM_DELAYS];
+        for (int i = 0; i < NUM_DELAYS; ++i) {
+            delays[i] = random.nextInt(64) + 1;
+        }
+    }
+
+    @Benchmark
+    public int nextEventMachine() {
+        int theMachine = eList.nextEventMachine();
+        int theTime = eList.nextEventTime(theMachine);
+        eList.setFinishTime(theMachine, theTime + delays[nextDelay]);
+        nextDelay = (nextDelay + 1) & (NUM_DELAYS - 1);
+        return theMachine;
+    }
+}
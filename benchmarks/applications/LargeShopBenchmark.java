@@ -0,0 +1,61 @@
+package applications;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures MachineShopSimulator.runSimulation on a shop of 10^7 tasks,
+ * numJobs jobs of tasksPerJob tasks each. A run takes seconds, so each
+ * one is timed on its own rather than in SimulationBenchmark's grid,
+ * where this size would multiply its running time many times over.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class LargeShopBenchmark {
+
+    @Param({"1000"})
+    public int numMachines;
+
+    @Param({"500000"})
+    public int numJobs;
+
+    @Param({"20"})
+    public int tasksPerJob;
+
+    @Param({"OBJECT_GRAPH", "FLAT", "PARALLEL"})
+    public SimulationOptions.EngineKind engineKind;
+
+    @Param({"4"})
+    public int numThreads;
+
+    private SimulationSpecification specification;
+    private SimulationOptions options;
+
+    @Setup
+    public void setUp() {
+        specification = BenchmarkSpecifications.generate(numMachines, numJobs, tasksPerJob);
+        options = new SimulationOptions();
+        options.setEngineKind(engineKind);
+        options.setNumThreads(numThreads);
+    }
+
+    @Benchmark
+    public SimulationResults runSimulation() {
+        return MachineShopSimulator.runSimulation(specification, options);
+    }
+}
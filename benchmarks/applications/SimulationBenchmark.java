@@ -0,0 +1,66 @@
+package applications;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures MachineShopSimulator.runSimulation end to end, from an
+ * already built specification to the finished results. queueKind only
+ * matters to the OBJECT_GRAPH engine and numThreads only to PARALLEL,
+ * so narrow the grid with -p when comparing engines, e.g.
+ * -p engineKind=PARALLEL -p numThreads=1,2,4,8.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SimulationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int numMachines;
+
+    @Param({"100", "10000"})
+    public int numJobs;
+
+    @Param({"5", "20"})
+    public int tasksPerJob;
+
+    @Param({"OBJECT_GRAPH", "FLAT", "PARALLEL"})
+    public SimulationOptions.EngineKind engineKind;
+
+    @Param({"LINKED", "ARRAY"})
+    public SimulationOptions.QueueKind queueKind;
+
+    @Param({"1", "4"})
+    public int numThreads;
+
+    private SimulationSpecification specification;
+    private SimulationOptions options;
+
+    @Setup
+    public void setUp() {
+        specification = BenchmarkSpecifications.generate(numMachines, numJobs, tasksPerJob);
+        options = new SimulationOptions();
+        options.setEngineKind(engineKind);
+        options.setQueueKind(queueKind);
+        options.setNumThreads(numThreads);
+    }
+
+    @Benchmark
+    public SimulationResults runSimulation() {
+        return MachineShopSimulator.runSimulation(specification, options);
+    }
+}
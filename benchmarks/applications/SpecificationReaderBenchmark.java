@@ -0,0 +1,103 @@
+package applications;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utilities.IntegerInput;
+import utilities.IntegerScanner;
+import utilities.MyInputStream;
+
+/**
+ * Measures parsing a specification in the text format with each of
+ * the integer readers, and loading it from the binary format.
+ * MyInputStream can only read System.in or a file, so System.in is
+ * swapped for it. The reader writes prompts to System.out, which is
+ * swapped out for the duration of the benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SpecificationReaderBenchmark {
+
+    @Param({"10", "1000"})
+    public int numMachines;
+
+    @Param({"100", "10000"})
+    public int numJobs;
+
+    @Param({"5", "20"})
+    public int tasksPerJob;
+
+    @Param({"MY_INPUT_STREAM", "INTEGER_SCANNER", "BINARY"})
+    public String reader;
+
+    private byte[] specificationText;
+    private byte[] specificationBinary;
+    private InputStream originalIn;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        SimulationSpecification specification
+                = BenchmarkSpecifications.generate(numMachines, numJobs, tasksPerJob);
+        specificationText = BenchmarkSpecifications.toText(specification)
+                .getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinarySpecification.write(specification, binary);
+        specificationBinary = binary.toByteArray();
+        originalIn = System.in;
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setIn(originalIn);
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public SimulationSpecification readSpecification() {
+        if (reader.equals("BINARY"))
+            return BinarySpecification.read(ByteBuffer.wrap(specificationBinary));
+        IntegerInput input;
+        if (reader.equals("MY_INPUT_STREAM")) {
+            System.setIn(new ByteArrayInputStream(specificationText));
+            input = new MyInputStream();
+        } else {
+            input = new IntegerScanner(ByteBuffer.wrap(specificationText));
+        }
+        return new SpecificationReader(input).readSpecification();
+    }
+}
@@ -0,0 +1,55 @@
+package dataStructures;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a put followed by a remove on a queue that already holds
+ * queueLength elements, the steady state of a busy machine's wait
+ * queue.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+
+    @Param({"LINKED", "ARRAY"})
+    public String queueKind;
+
+    @Param({"0", "16", "1024"})
+    public int queueLength;
+
+    private Queue queue;
+    private final Object element = new Object();
+
+    @Setup
+    public void setUp() {
+        if (queueKind.equals("ARRAY"))
+            queue = new ArrayQueue();
+        else
+            queue = new LinkedQueue();
+        for (int i = 0; i < queueLength; ++i) {
+            queue.put(element);
+        }
+    }
+
+    @Benchmark
+    public Object putAndRemove() {
+        queue.put(element);
+        return queue.remove();
+    }
+}
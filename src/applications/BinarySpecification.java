@@ -0,0 +1,234 @@
+package applications;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import exceptions.MyInputException;
+import utilities.IntegerScanner;
+
+/**
+ * A compact binary file format for specifications, loaded by memory
+ * mapping the file and reading fixed-width values out of it instead of
+ * parsing tokens. The header and tables are big-endian ints:
+ *
+ * <pre>
+ * magic "MSSP", version, flags (1 if there are release times, 2 if there are due dates)
+ * number of machines m, number of jobs n, total number of tasks t
+ * bytes per machine number, bytes per task time (each 1, 2 or 4)
+ * change-over times of machines 1..m
+ * release times of jobs 1..n (only if flagged)
+ * due dates of jobs 1..n (only if flagged)
+ * task offsets of jobs 1..n+1: job i's tasks are tasks[offset i, offset i+1)
+ * tasks: t (machine, time) pairs in job order, each job's in process order
+ * </pre>
+ *
+ * Task fields are unsigned and as narrow as the shop allows, so a shop
+ * with up to 65,535 machines and task times under 256 takes three bytes
+ * per task. Version 1 files, which have no due dates, can still be
+ * read.
+ */
+public final class BinarySpecification {
+    static final int MAGIC = 0x4D535350; // "MSSP"
+    static final int VERSION = 2;
+    static final int HAS_RELEASE_TIMES = 1;
+    static final int HAS_DUE_DATES = 2;
+    private static final int HEADER_INTS = 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private BinarySpecification() {
+    }
+
+    /** write specification to out in the binary format; out isn't closed */
+    public static void write(SimulationSpecification specification, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        int numMachines = specification.getNumMachines();
+        int numJobs = specification.getNumJobs();
+        boolean hasReleaseTimes = specification.hasReleaseTimes();
+        boolean hasDueDates = specification.hasDueDates();
+        int totalTasks = specification.getTotalTasks();
+        int maxTaskTime = 0;
+        for (int task = 0; task < totalTasks; task++)
+            maxTaskTime = Math.max(maxTaskTime, specification.getTaskTime(task));
+        int machineWidth = widthFor(numMachines);
+        int timeWidth = widthFor(maxTaskTime);
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt((hasReleaseTimes ? HAS_RELEASE_TIMES : 0) | (hasDueDates ? HAS_DUE_DATES : 0));
+        data.writeInt(numMachines);
+        data.writeInt(numJobs);
+        data.writeInt(totalTasks);
+        data.writeInt(machineWidth);
+        data.writeInt(timeWidth);
+        for (int p = 1; p <= numMachines; p++)
+            data.writeInt(specification.getChangeOverTimes(p));
+        if (hasReleaseTimes) {
+            for (int i = 1; i <= numJobs; i++)
+                data.writeInt(specification.getReleaseTime(i));
+        }
+        if (hasDueDates) {
+            for (int i = 1; i <= numJobs; i++)
+                data.writeInt(specification.getDueDate(i));
+        }
+        for (int i = 1; i <= numJobs + 1; i++)
+            data.writeInt(specification.getFirstTask(i));
+        for (int task = 0; task < totalTasks; task++) {
+            writeUnsigned(data, specification.getTaskMachine(task), machineWidth);
+            writeUnsigned(data, specification.getTaskTime(task), timeWidth);
+        }
+        data.flush();
+    }
+
+    /** @return the fewest bytes, 1, 2 or 4, that hold values up to max */
+    private static int widthFor(int max) {
+        if (max <= 0xFF)
+            return 1;
+        if (max <= 0xFFFF)
+            return 2;
+        return 4;
+    }
+
+    private static void writeUnsigned(DataOutputStream data, int value, int width) throws IOException {
+        if (width == 1)
+            data.writeByte(value);
+        else if (width == 2)
+            data.writeShort(value);
+        else
+            data.writeInt(value);
+    }
+
+    private static int readUnsigned(ByteBuffer buffer, int width) {
+        if (width == 1)
+            return buffer.get() & 0xFF;
+        if (width == 2)
+            return buffer.getShort() & 0xFFFF;
+        return buffer.getInt();
+    }
+
+    /** write specification to the file at path */
+    public static void write(SimulationSpecification specification, Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(specification, out);
+        }
+    }
+
+    /**
+     * Load the specification in the file at path. The file is mapped
+     * rather than read and each array is copied out in one bulk get.
+     * The values are checked as strictly as SpecificationReader checks
+     * text input.
+     */
+    public static SimulationSpecification read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new MyInputException(MachineShopSimulator.NOT_A_BINARY_SPECIFICATION);
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** load the specification in the remaining bytes of buffer */
+    public static SimulationSpecification read(ByteBuffer buffer) {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < 4 * HEADER_INTS || buffer.getInt() != MAGIC)
+            throw new MyInputException(MachineShopSimulator.NOT_A_BINARY_SPECIFICATION);
+        int version = buffer.getInt();
+        int flags = buffer.getInt();
+        if (version < 1 || version > VERSION || version == 1 && (flags & HAS_DUE_DATES) != 0)
+            throw new MyInputException(MachineShopSimulator.NOT_A_BINARY_SPECIFICATION);
+        int numMachines = buffer.getInt();
+        int numJobs = buffer.getInt();
+        int totalTasks = buffer.getInt();
+        int machineWidth = buffer.getInt();
+        int timeWidth = buffer.getInt();
+        if (numMachines < 1 || numJobs < 1)
+            throw new MyInputException(MachineShopSimulator.NUMBER_OF_MACHINES_AND_JOBS_MUST_BE_AT_LEAST_1);
+        boolean hasReleaseTimes = (flags & HAS_RELEASE_TIMES) != 0;
+        boolean hasDueDates = (flags & HAS_DUE_DATES) != 0;
+        // widen before adding, so no header values can wrap around to the file's size
+        long expectedBytes = 4L * numMachines + (hasReleaseTimes ? 4L * numJobs : 0)
+                + (hasDueDates ? 4L * numJobs : 0) + 4L * numJobs + 4
+                + ((long) machineWidth + timeWidth) * totalTasks;
+        if (totalTasks < 0 || !isWidth(machineWidth) || !isWidth(timeWidth)
+                || buffer.remaining() != expectedBytes)
+            throw new MyInputException(MachineShopSimulator.NOT_A_BINARY_SPECIFICATION);
+
+        SimulationSpecification specification = new SimulationSpecification();
+        specification.setNumMachines(numMachines);
+        specification.setNumJobs(numJobs);
+
+        IntBuffer ints = buffer.asIntBuffer();
+        int[] changeOverTimes = new int[numMachines + 1];
+        ints.get(changeOverTimes, 1, numMachines);
+        for (int p = 1; p <= numMachines; p++) {
+            if (changeOverTimes[p] < 0)
+                throw new MyInputException(MachineShopSimulator.CHANGE_OVER_TIME_MUST_BE_AT_LEAST_0);
+        }
+        specification.setChangeOverTimes(changeOverTimes);
+
+        int[] releaseTimes = new int[numJobs + 1];
+        if (hasReleaseTimes)
+            ints.get(releaseTimes, 1, numJobs);
+        int[] dueDates = new int[numJobs + 1];
+        if (hasDueDates)
+            ints.get(dueDates, 1, numJobs);
+        // the offsets are the specification's firstTask from job 1 on
+        int[] firstTask = new int[numJobs + 2];
+        ints.get(firstTask, 1, numJobs + 1);
+        if (firstTask[1] != 0 || firstTask[numJobs + 1] != totalTasks)
+            throw new MyInputException(MachineShopSimulator.NOT_A_BINARY_SPECIFICATION);
+        buffer.position(buffer.position() + 4 * ints.position());
+
+        for (int i = 1; i <= numJobs; i++) {
+            if (firstTask[i + 1] - firstTask[i] < 1)
+                throw new MyInputException(MachineShopSimulator.EACH_JOB_MUST_HAVE_AT_LEAST_1_TASK);
+            if (releaseTimes[i] < 0)
+                throw new MyInputException(MachineShopSimulator.RELEASE_TIME_MUST_BE_AT_LEAST_0);
+        }
+        int[] taskMachines = new int[totalTasks];
+        int[] taskTimes = new int[totalTasks];
+        for (int task = 0; task < totalTasks; task++) {
+            int machine = readUnsigned(buffer, machineWidth);
+            int taskTime = readUnsigned(buffer, timeWidth);
+            if (machine < 1 || machine > numMachines || taskTime < 1)
+                throw new MyInputException(MachineShopSimulator.BAD_MACHINE_NUMBER_OR_TASK_TIME);
+            taskMachines[task] = machine;
+            taskTimes[task] = taskTime;
+        }
+        specification.setTasks(firstTask, taskMachines, taskTimes);
+        for (int i = 1; i <= numJobs; i++) {
+            specification.setReleaseTime(i, releaseTimes[i]);
+            specification.setDueDate(i, dueDates[i]);
+        }
+        return specification;
+    }
+
+    private static boolean isWidth(int width) {
+        return width == 1 || width == 2 || width == 4;
+    }
+
+    /**
+     * Convert a text specification to the binary format.
+     * Arguments: [--release-times] textFile binaryFile
+     */
+    public static void main(String[] args) throws IOException {
+        boolean withReleaseTimes = args.length == 3 && args[0].equals("--release-times");
+        if (args.length != (withReleaseTimes ? 3 : 2)) {
+            System.err.println("usage: BinarySpecification [--release-times] textFile binaryFile");
+            System.exit(1);
+        }
+        int first = withReleaseTimes ? 1 : 0;
+        SpecificationReader reader = new SpecificationReader(new IntegerScanner(args[first]), withReleaseTimes);
+        reader.setPrompting(false);
+        write(reader.readSpecification(), Paths.get(args[first + 1]));
+    }
+}
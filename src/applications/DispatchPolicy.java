@@ -0,0 +1,38 @@
+package applications;
+
+import java.util.Comparator;
+
+/**
+ * The rule a machine uses to choose which of its waiting jobs to work
+ * on next. Every rule but FIFO keeps the machine's queue in a
+ * {@link dataStructures.MinHeapQueue}, so choosing costs O(log n) in
+ * the length of the queue; jobs the rule can't tell apart are taken
+ * first come, first served.
+ */
+public enum DispatchPolicy {
+    /** first in, first out, the order jobs arrived at the machine */
+    FIFO(null),
+    /** shortest processing time, the job whose task on the machine is shortest */
+    SPT(Comparator.comparingInt(Job::getNextTaskTime)),
+    /** least remaining work, the job with the least total task time left */
+    LRW(Comparator.comparingInt(Job::getRemainingWork)),
+    /**
+     * earliest due date, see {@link SimulationSpecification#setDueDate};
+     * jobs without due dates go last
+     */
+    EDD(Comparator.comparingInt((Job job) -> job.dueDate == 0 ? Integer.MAX_VALUE : job.dueDate));
+
+    private final Comparator<Job> order; // null for FIFO
+
+    DispatchPolicy(Comparator<Job> order) {
+        this.order = order;
+    }
+
+    /**
+     * @return the order jobs leave a machine queue in, null if they
+     *         leave in the order they arrived
+     */
+    Comparator<Job> getOrder() {
+        return order;
+    }
+}
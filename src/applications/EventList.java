@@ -1,11 +1,28 @@
 package applications;
 
 class EventList {
+    /**
+     * Shops with at most this many machines use a plain scan of
+     * the finish time array, which beats the heap bookkeeping when
+     * the array fits in a cache line or two.
+     */
+    static final int SCAN_THRESHOLD = 64;
+
     // data members
     private int[] finishTime; // finish time array
+    private int[] heap; // heap[1..m] holds machines ordered by (finish time, machine); null when scanning
+    private int[] heapPosition; // heapPosition[machine] is the machine's index in heap
 
     // constructor
-    EventList(int theNumMachines, int theLargeTime) {// initialize
+    EventList(int theNumMachines, int theLargeTime) {
+        this(theNumMachines, theLargeTime, theNumMachines > SCAN_THRESHOLD);
+    }
+
+    /**
+     * @param useHeap true to keep the machines in an indexed min-heap,
+     *                false to find the next event with a linear scan
+     */
+    EventList(int theNumMachines, int theLargeTime, boolean useHeap) {// initialize
                                                              // finish
                                                              // times for
                                                              // m
@@ -18,10 +35,24 @@ class EventList {
         // large finish time
         for (int i = 1; i <= theNumMachines; i++)
             finishTime[i] = theLargeTime;
+
+        if (useHeap) {
+            // all finish times are equal, so machines in index
+            // order already satisfy the heap property
+            heap = new int[theNumMachines + 1];
+            heapPosition = new int[theNumMachines + 1];
+            for (int i = 1; i <= theNumMachines; i++) {
+                heap[i] = i;
+                heapPosition[i] = i;
+            }
+        }
     }
 
     /** @return machine for next event */
     public int nextEventMachine() {
+        if (heap != null)
+            return heap[1];
+
         // find first machine to finish, this is the
         // machine with smallest finish time
         int p = 1;
@@ -39,7 +70,54 @@ class EventList {
     }
 
     public void setFinishTime(int theMachine, int theTime) {
+        int oldTime = finishTime[theMachine];
         finishTime[theMachine] = theTime;
+        if (heap == null || theTime == oldTime)
+            return;
+        if (theTime < oldTime)
+            siftUp(heapPosition[theMachine]);
+        else
+            siftDown(heapPosition[theMachine]);
     }
 
+    /** @return true iff machine a's event comes before machine b's */
+    private boolean before(int a, int b) {
+        // ties go to the lower machine, as with the scan
+        return finishTime[a] < finishTime[b]
+                || (finishTime[a] == finishTime[b] && a < b);
+    }
+
+    private void siftUp(int position) {
+        int theMachine = heap[position];
+        while (position > 1) {
+            int parent = position >>> 1;
+            if (!before(theMachine, heap[parent]))
+                break;
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(theMachine, position);
+    }
+
+    private void siftDown(int position) {
+        int theMachine = heap[position];
+        int size = heap.length - 1;
+        while (true) {
+            int child = position << 1;
+            if (child > size)
+                break;
+            if (child < size && before(heap[child + 1], heap[child]))
+                child++;
+            if (!before(heap[child], theMachine))
+                break;
+            place(heap[child], position);
+            position = child;
+        }
+        place(theMachine, position);
+    }
+
+    private void place(int theMachine, int position) {
+        heap[position] = theMachine;
+        heapPosition[theMachine] = position;
+    }
 }
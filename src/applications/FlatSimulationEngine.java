@@ -0,0 +1,170 @@
+package applications;
+
+import java.util.Arrays;
+
+/**
+ * A machine shop simulation that keeps jobs, tasks and machines in
+ * parallel int arrays indexed by job, task and machine number instead
+ * of in Job and Machine objects. The event loop doesn't chase
+ * pointers, but it follows exactly the same rules as
+ * {@link SimulationEngine}, so the results are identical.
+ *
+ * Each machine's wait queue is a singly linked list threaded through
+ * {@code nextInQueue}; a job waits on at most one machine at a time, so
+ * one link per job is enough.
+ *
+ * Nothing is allocated per event or per completed job; results go
+ * straight to the ResultSink as ids and times.
+ */
+public class FlatSimulationEngine {
+    private static final int NO_JOB = 0;
+
+    private final SimulationSpecification specification;
+    private final int largeTime = Integer.MAX_VALUE; // all machines finish before this
+    private int timeNow; // current time
+    private int numMachines;
+    private int numJobs; // number of jobs still in the shop
+    private EventList eList;
+
+    // tasks, all jobs' tasks back to back in process order; the
+    // specification's own arrays, only read
+    private int[] taskMachine;
+    private int[] taskTime;
+
+    // jobs, indexed by job number
+    private int[] nextTask; // index in the task arrays of the job's next task
+    private int[] firstTask; // the specification's; job i's tasks end where job i + 1's begin
+    private int[] arrivalTime; // time the job arrived at its current machine
+    private int[] timeRunning; // total time spent on tasks so far
+    private int[] nextInQueue; // next job in the same machine queue, or NO_JOB
+
+    // machines, indexed by machine number
+    private int[] changeTime;
+    private int[] totalWait;
+    private int[] tasksDone;
+    private int[] activeJob; // NO_JOB when idle or changing over
+    private int[] queueFront;
+    private int[] queueRear;
+
+    public FlatSimulationEngine(SimulationSpecification specification) {
+        this.specification = specification;
+    }
+
+    private void loadTables() {
+        numMachines = specification.getNumMachines();
+        numJobs = specification.getNumJobs();
+
+        taskMachine = specification.getTaskMachines();
+        taskTime = specification.getTaskTimes();
+
+        firstTask = specification.getFirstTasks();
+        nextTask = Arrays.copyOf(firstTask, numJobs + 1);
+        arrivalTime = new int[numJobs + 1];
+        timeRunning = new int[numJobs + 1];
+        nextInQueue = new int[numJobs + 1];
+
+        changeTime = new int[numMachines + 1];
+        totalWait = new int[numMachines + 1];
+        tasksDone = new int[numMachines + 1];
+        activeJob = new int[numMachines + 1];
+        queueFront = new int[numMachines + 1];
+        queueRear = new int[numMachines + 1];
+        for (int p = 1; p <= numMachines; p++)
+            changeTime[p] = specification.getChangeOverTimes(p);
+    }
+
+    private void enqueue(int theMachine, int theJob) {
+        nextInQueue[theJob] = NO_JOB;
+        if (queueFront[theMachine] == NO_JOB)
+            queueFront[theMachine] = theJob;
+        else
+            nextInQueue[queueRear[theMachine]] = theJob;
+        queueRear[theMachine] = theJob;
+    }
+
+    private int dequeue(int theMachine) {
+        int theJob = queueFront[theMachine];
+        queueFront[theMachine] = nextInQueue[theJob];
+        if (queueFront[theMachine] == NO_JOB)
+            queueRear[theMachine] = NO_JOB;
+        return theJob;
+    }
+
+    /**
+     * move theJob to machine for its next task
+     *
+     * @return false iff no next task
+     */
+    private boolean moveToNextMachine(int theJob) {
+        if (nextTask[theJob] == firstTask[theJob + 1])
+            return false;
+        int p = taskMachine[nextTask[theJob]];
+        enqueue(p, theJob);
+        arrivalTime[theJob] = timeNow;
+        if (eList.nextEventTime(p) == largeTime)
+            changeState(p);
+        return true;
+    }
+
+    /**
+     * change the state of theMachine
+     *
+     * @return last job run on this machine, or NO_JOB
+     */
+    private int changeState(int theMachine) {
+        int lastJob = activeJob[theMachine];
+        if (lastJob == NO_JOB) {// in idle or change-over state
+            if (queueFront[theMachine] == NO_JOB)
+                eList.setFinishTime(theMachine, largeTime);
+            else {// take job off the queue and work on it
+                int theJob = dequeue(theMachine);
+                activeJob[theMachine] = theJob;
+                totalWait[theMachine] += timeNow - arrivalTime[theJob];
+                tasksDone[theMachine]++;
+                int t = taskTime[nextTask[theJob]++];
+                timeRunning[theJob] += t;
+                eList.setFinishTime(theMachine, timeNow + t);
+            }
+        } else {// task has just finished, schedule change-over time
+            activeJob[theMachine] = NO_JOB;
+            eList.setFinishTime(theMachine, timeNow + changeTime[theMachine]);
+        }
+        return lastJob;
+    }
+
+    private void startShop() {
+        eList = new EventList(numMachines, largeTime);
+        for (int i = 1; i <= numJobs; i++)
+            enqueue(taskMachine[nextTask[i]], i);
+        for (int p = 1; p <= numMachines; p++)
+            changeState(p);
+    }
+
+    private void simulate(ResultSink sink) {
+        while (numJobs > 0) {
+            int nextToFinish = eList.nextEventMachine();
+            timeNow = eList.nextEventTime(nextToFinish);
+            int theJob = changeState(nextToFinish);
+            if (theJob != NO_JOB && !moveToNextMachine(theJob)) {
+                sink.jobCompleted(theJob, timeNow, timeNow - timeRunning[theJob]);
+                numJobs--;
+            }
+        }
+    }
+
+    /** run the specification through the shop, collecting the results */
+    public SimulationResults run() {
+        SimulationResults simulationResults = new SimulationResults(specification.getNumJobs());
+        run(simulationResults);
+        return simulationResults;
+    }
+
+    /** run the specification through the shop, streaming the results to sink */
+    public void run(ResultSink sink) {
+        timeNow = 0;
+        loadTables();
+        startShop();
+        simulate(sink);
+        sink.simulationCompleted(timeNow, tasksDone, totalWait);
+    }
+}
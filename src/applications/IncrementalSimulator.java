@@ -0,0 +1,167 @@
+package applications;
+
+/**
+ * Simulates a specification again and again as it is edited, for
+ * what-if planning. Each run keeps a snapshot of the shop every
+ * snapshotInterval events. The next run compares its specification
+ * with the last one and carries on from the latest snapshot taken
+ * before the edits could have made a difference, so only the rest of
+ * the simulation is run again. The results are the same as those of a
+ * run from time 0.
+ *
+ * An edit to machine p's change-over time can't show until a task
+ * finishes on p. An edit to a job's tasks can't show until the job
+ * reaches the first task that changed, or until it enters the shop if
+ * the dispatch policy is LRW and the job's total remaining work
+ * changed, or EDD and its due date changed. Any other edit, to the
+ * number of machines or jobs or to a release time, means a run from
+ * time 0.
+ *
+ * Runs always use the object graph engine. Snapshots are kept in
+ * memory; each holds a few ints for every machine and for every job in
+ * the shop.
+ */
+public class IncrementalSimulator {
+    private final SimulationOptions options;
+    private final SnapshotLog log;
+    private SimulationSpecification previous; // null before the first run
+    private int resumeTime;
+
+    /**
+     * @param options          how to run, without a listener,
+     *                         checkpoints or stochastic task times
+     * @param snapshotInterval the number of events between snapshots
+     */
+    public IncrementalSimulator(SimulationOptions options, long snapshotInterval) {
+        if (options.getListener() != null || options.getCheckpointFile() != null
+                || options.getTaskTimeDistributions() != null)
+            throw new IllegalArgumentException(
+                    "incremental runs can't have a listener, checkpoints or stochastic task times");
+        if (snapshotInterval < 1)
+            throw new IllegalArgumentException("snapshot interval must be >= 1");
+        this.options = options;
+        this.log = new SnapshotLog(snapshotInterval);
+    }
+
+    public SimulationResults run(SimulationSpecification specification) {
+        SimulationResults simulationResults = new SimulationResults(specification.getNumJobs());
+        run(specification, simulationResults);
+        return simulationResults;
+    }
+
+    /**
+     * Simulate specification, carrying on from the last run where
+     * possible, handing the results to sink. specification must not be
+     * changed afterwards, since the next run compares with it; edit a
+     * copy instead.
+     */
+    public void run(SimulationSpecification specification, ResultSink sink) {
+        int snapshot = previous == null ? -1 : lastUnaffectedSnapshot(specification);
+        previous = null; // until this run has finished
+        SimulationEngine engine = new SimulationEngine(specification, options);
+        engine.setSnapshotLog(log);
+        if (snapshot < 0) {
+            resumeTime = 0;
+            log.clear(specification.getNumJobs());
+            engine.run(sink);
+        } else {
+            resumeTime = log.getSnapshot(snapshot).timeNow;
+            log.truncate(snapshot);
+            engine.resume(log.getSnapshot(snapshot), sink);
+        }
+        previous = specification;
+    }
+
+    /** @return the simulated time the last run carried on from, 0 if it started from scratch */
+    public int getResumeTime() {
+        return resumeTime;
+    }
+
+    /**
+     * @return the index of the latest snapshot of the last run that
+     * the differences between its specification and specification
+     * couldn't yet have affected, -1 if there is none
+     */
+    private int lastUnaffectedSnapshot(SimulationSpecification specification) {
+        int numMachines = specification.getNumMachines();
+        int numJobs = specification.getNumJobs();
+        if (numMachines != previous.getNumMachines() || numJobs != previous.getNumJobs()
+                || specification.hasReleaseTimes() != previous.hasReleaseTimes())
+            return -1;
+
+        // machines whose change-over time changed
+        int[] changedMachines = new int[numMachines];
+        int numChangedMachines = 0;
+        for (int p = 1; p <= numMachines; p++) {
+            if (specification.getChangeOverTimes(p) != previous.getChangeOverTimes(p))
+                changedMachines[numChangedMachines++] = p;
+        }
+
+        // jobs that changed, with the number of tasks they kept unchanged
+        // and whether they changed the order of a queue they wait in
+        int[] changedJobs = new int[numJobs];
+        int[] unchangedTasks = new int[numJobs];
+        boolean[] reordered = new boolean[numJobs];
+        int numChangedJobs = 0;
+        DispatchPolicy policy = options.getDispatchPolicy();
+        for (int i = 1; i <= numJobs; i++) {
+            if (specification.getReleaseTime(i) != previous.getReleaseTime(i))
+                return -1;
+            int first = specification.getFirstTask(i);
+            int oldFirst = previous.getFirstTask(i);
+            int numTasks = specification.getNumTasks(i);
+            int oldNumTasks = previous.getNumTasks(i);
+            int k = 0;
+            while (k < numTasks && k < oldNumTasks
+                    && specification.getTaskMachine(first + k) == previous.getTaskMachine(oldFirst + k)
+                    && specification.getTaskTime(first + k) == previous.getTaskTime(oldFirst + k))
+                k++;
+            boolean dueDateChanged = specification.getDueDate(i) != previous.getDueDate(i);
+            boolean reorders = policy == DispatchPolicy.EDD && dueDateChanged;
+            if (policy == DispatchPolicy.LRW) {
+                long remainingWork = 0;
+                for (int t = k; t < numTasks; t++)
+                    remainingWork += specification.getTaskTime(first + t);
+                for (int t = k; t < oldNumTasks; t++)
+                    remainingWork -= previous.getTaskTime(oldFirst + t);
+                reorders = remainingWork != 0;
+            }
+            if (k < numTasks || k < oldNumTasks || reorders) {
+                changedJobs[numChangedJobs] = i;
+                unchangedTasks[numChangedJobs] = k;
+                reordered[numChangedJobs] = reorders;
+                numChangedJobs++;
+            }
+        }
+
+        // snapshots stay unaffected up to some point, so search for it
+        int low = 0;
+        int high = log.getNumSnapshots() - 1;
+        int last = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            SnapshotLog.Snapshot snapshot = log.getSnapshot(middle);
+            boolean unaffected = true;
+            for (int c = 0; c < numChangedMachines && unaffected; c++)
+                unaffected = snapshot.tasksFinished(changedMachines[c]) == 0;
+            for (int c = 0; c < numChangedJobs && unaffected; c++) {
+                int i = changedJobs[c];
+                if (log.wasCompleted(i, snapshot))
+                    unaffected = false;
+                else if (!specification.hasReleaseTimes() || log.wasReleased(i, snapshot)) {
+                    // the job is in the shop
+                    int started = snapshot.tasksStarted(i);
+                    unaffected = !reordered[c] && (started < unchangedTasks[c]
+                            || started == unchangedTasks[c] && snapshot.isRunning(i));
+                }
+            }
+            if (unaffected) {
+                last = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return last;
+    }
+}
@@ -0,0 +1,43 @@
+package applications;
+
+import java.util.SplittableRandom;
+
+/**
+ * A distribution of ints to draw workload parameters from. The task
+ * time distributions of {@link TaskTimeDistribution} are
+ * IntDistributions too, so a workload can take its task times from the
+ * same distributions a stochastic run draws from.
+ */
+public interface IntDistribution {
+
+    /** @return the next value, drawn using random */
+    int sample(SplittableRandom random);
+
+    /** @return a distribution that is always value */
+    static IntDistribution constant(int value) {
+        return random -> value;
+    }
+
+    /** @return the uniform distribution on [min, max] */
+    static IntDistribution uniform(int min, int max) {
+        if (max < min)
+            throw new IllegalArgumentException("max must be >= min");
+        int range = max - min + 1;
+        return random -> min + random.nextInt(range);
+    }
+
+    /**
+     * @return a geometric distribution on min, min + 1, ... with the given
+     * mean; most values are small but there is a long tail of large ones
+     */
+    static IntDistribution geometric(int min, double mean) {
+        if (mean <= min)
+            throw new IllegalArgumentException("mean must be > min");
+        double logOfFailure = Math.log(1 - 1 / (mean - min + 1));
+        return random -> {
+            double u = 1 - random.nextDouble(); // in (0, 1]
+            long value = min + (long) (Math.log(u) / logOfFailure);
+            return (int) Math.min(value, Integer.MAX_VALUE);
+        };
+    }
+}
@@ -1,49 +1,115 @@
 package applications;
 
-import dataStructures.LinkedQueue;
+import java.util.SplittableRandom;
 
 class Job {
     // data members
-    private LinkedQueue taskQ; // this job's tasks
+    private int[] taskMachines; // this job's tasks are elements nextTask to endTask - 1
+    private int[] taskTimes;    // of these, which may belong to a SimulationSpecification
+    private int nextTask;
+    private int endTask;
     private int timeRunning; // measures how long the job has been running (excluded downtime)
     public int machineArrivalTime; // The global time when the job arrives at the machine of the current task.
     private int id;
-    public int numTasks;
-    private int[] specificationsForTasks;
+    public int releaseTime; // The global time when the job enters the shop.
+    public int dueDate; // The global time the job should be completed by, 0 if it has none.
+    private int remainingWork; // total time of the tasks from nextTask on
     public int completionTime;
     public int totalWaitTime;
 
-    public int[] getSpecificationsForTasks() {
-        return specificationsForTasks;
-    }
-
     Job(int theId) {
         id = theId;
-        taskQ = new LinkedQueue();
     }
 
-    public void addTask(int machineID, int time) {
-        getTaskQ().put(new Task(machineID, time));
+    /**
+     * give the job tasks first to end - 1 of taskMachines and taskTimes,
+     * which it reads but never changes
+     */
+    void setTasks(int[] taskMachines, int[] taskTimes, int first, int end) {
+        this.taskMachines = taskMachines;
+        this.taskTimes = taskTimes;
+        nextTask = first;
+        endTask = end;
+        remainingWork = 0;
+        for (int k = first; k < end; k++)
+            remainingWork += taskTimes[k];
+    }
+
+    /** set the job's tasks from machine, time pairs in elements 1 to 2n of specificationsForTasks */
+    public void setSpecificationsForTasks(int[] specificationsForTasks) {
+        int numTasks = (specificationsForTasks.length - 1) / 2;
+        int[] machines = new int[numTasks];
+        int[] times = new int[numTasks];
+        for (int j = 0; j < numTasks; j++) {
+            machines[j] = specificationsForTasks[2 * j + 1];
+            times[j] = specificationsForTasks[2 * j + 2];
+        }
+        setTasks(machines, times, 0, numTasks);
+    }
+
+    /** @return the number of tasks the job has still to start */
+    public int getNumTasks() {
+        return endTask - nextTask;
+    }
+
+    /** @return the machine of the job's task i, counting from its next task as 0 */
+    public int getTaskMachine(int i) {
+        return taskMachines[nextTask + i];
+    }
+
+    /** @return the time of the job's task i, counting from its next task as 0 */
+    public int getTaskTime(int i) {
+        return taskTimes[nextTask + i];
     }
 
-    public LinkedQueue getTaskQ() {
-        return taskQ;
+    public boolean hasNextTask() {
+        return nextTask < endTask;
+    }
+
+    /** @return the machine of the job's next task */
+    public int getNextMachine() {
+        return taskMachines[nextTask];
     }
 
     public int removeNextTask() {
-        int taskTime = ((Task) getTaskQ().remove()).getTime();
+        int taskTime = taskTimes[nextTask++];
         timeRunning += taskTime;
+        remainingWork -= taskTime;
         return taskTime;
     }
 
-    public void setSpecificationsForTasks(int[] specificationsForTasks) {
-        this.specificationsForTasks = specificationsForTasks;
+    /**
+     * start the job's next task, taking a time drawn from distribution
+     * instead of the specified one, which dispatch policies still see
+     *
+     * @return the time drawn
+     */
+    public int removeNextTask(TaskTimeDistribution distribution, SplittableRandom random) {
+        int specifiedTime = taskTimes[nextTask++];
+        int taskTime = distribution.sample(random);
+        timeRunning += taskTime;
+        remainingWork -= specifiedTime;
+        return taskTime;
+    }
+
+    /** @return the time of the job's next task */
+    public int getNextTaskTime() {
+        return taskTimes[nextTask];
+    }
+
+    /** @return the total time of the job's tasks that haven't started */
+    public int getRemainingWork() {
+        return remainingWork;
     }
 
     public int getTimeRunning() {
         return timeRunning;
     }
 
+    void setTimeRunning(int timeRunning) {
+        this.timeRunning = timeRunning;
+    }
+
     public int getId() {
         return id;
     }
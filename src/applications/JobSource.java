@@ -0,0 +1,18 @@
+package applications;
+
+/**
+ * Supplies the jobs of a simulation one at a time in order of release
+ * time, so the engine only has to hold the jobs that have entered the
+ * shop. Each job comes ready to run, with its id, release time, due
+ * date and tasks set.
+ */
+public interface JobSource {
+    /** @return true iff there is at least one more job */
+    public boolean hasNextJob();
+
+    /** @return the release time of the next job, which is never less than the last one's */
+    public int peekReleaseTime();
+
+    /** @return the next job */
+    public Job nextJob();
+}
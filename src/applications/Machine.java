@@ -1,10 +1,11 @@
 package applications;
 
 import dataStructures.LinkedQueue;
+import dataStructures.Queue;
 
 class Machine {
     // data members
-    private LinkedQueue jobQ; // queue of waiting jobs for this machine
+    private Queue jobQ; // queue of waiting jobs for this machine
     private int changeTime; // machine change-over time
     private int totalWait; // total delay at this machine
     private int numTasks; // number of tasks processed on this machine
@@ -12,10 +13,14 @@ class Machine {
 
     // constructor
     Machine() {
-        jobQ = new LinkedQueue();
+        this(new LinkedQueue());
     }
 
-    public LinkedQueue getJobQ() {
+    Machine(Queue jobQ) {
+        this.jobQ = jobQ;
+    }
+
+    public Queue getJobQ() {
         return jobQ;
     }
 
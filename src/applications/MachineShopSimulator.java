@@ -2,196 +2,221 @@
 
 package applications;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import utilities.IntegerScanner;
+
 public class MachineShopSimulator {
-    
+
     public static final String NUMBER_OF_MACHINES_MUST_BE_AT_LEAST_1 = "number of machines must be >= 1";
     public static final String NUMBER_OF_MACHINES_AND_JOBS_MUST_BE_AT_LEAST_1 = "number of machines and jobs must be >= 1";
     public static final String CHANGE_OVER_TIME_MUST_BE_AT_LEAST_0 = "change-over time must be >= 0";
     public static final String EACH_JOB_MUST_HAVE_AT_LEAST_1_TASK = "each job must have >= 1 task";
     public static final String BAD_MACHINE_NUMBER_OR_TASK_TIME = "bad machine number or task time";
+    public static final String RELEASE_TIME_MUST_BE_AT_LEAST_0 = "release time must be >= 0";
+    public static final String RELEASE_TIMES_MUST_NOT_DECREASE = "release times must not decrease from one job to the next";
+    public static final String NOT_A_CHECKPOINT = "not a simulation checkpoint";
+    public static final String CHECKPOINT_IS_FOR_ANOTHER_SPECIFICATION = "checkpoint is for another specification";
+    public static final String NOT_A_BINARY_SPECIFICATION = "not a binary specification";
+    public static final String NOT_A_TRACE = "not a simulation trace";
 
-    // data members of MachineShopSimulator
-    private static int timeNow; // current time
-    private static int numMachines; // number of machines
-    private static int numJobs; // number of jobs
-    private static EventList eList; // pointer to event list
-    private static Machine[] machine; // array of machines
-    private static int largeTime; // all machines finish before this
-
-    // methods
     /**
-     * move theJob to machine for its next task
-     * 
-     * @return false iff no next task
+     * Run a simulation of the given specification. Each call gets its
+     * own {@link SimulationEngine}, so this is safe to call from many
+     * threads at once as long as they don't modify the specification.
      */
-    static boolean moveToNextMachine(Job theJob, SimulationResults simulationResults) {
-        if (theJob.getTaskQ().isEmpty()) {// no next task
-            theJob.completionTime = timeNow;
-            theJob.totalWaitTime = timeNow - theJob.getTimeRunning();
-            return false;
-        } else {// theJob has a next task
-                // get machine for next task
-            int p = ((Task) theJob.getTaskQ().getFrontElement()).getMachine();
-            // put on machine p's wait queue
-            machine[p].getJobQ().put(theJob);
-            theJob.machineArrivalTime = timeNow;
-            // if p idle, schedule immediately
-            if (eList.nextEventTime(p) == largeTime) {// machine is idle
-                changeState(p);
-            }
-            return true;
-        }
+    public static SimulationResults runSimulation(SimulationSpecification specification) {
+        return runSimulation(specification, new SimulationOptions());
+    }
+
+    /** Run a simulation of the given specification with the given options. */
+    public static SimulationResults runSimulation(SimulationSpecification specification,
+                                                  SimulationOptions options) {
+        SimulationResults simulationResults = new SimulationResults(specification.getNumJobs());
+        runSimulation(specification, options, simulationResults);
+        return simulationResults;
     }
 
     /**
-     * change the state of theMachine
-     * 
-     * @return last job run on this machine
+     * Run a simulation of the given specification, handing each job to
+     * sink as it completes instead of keeping them all until the end.
      */
-    static Job changeState(int theMachine) {// Task on theMachine has finished,
-                                            // schedule next one.
-        Job lastJob;
-        if (machine[theMachine].getActiveJob() == null) {// in idle or change-over
-                                                    // state
-            lastJob = null;
-            // wait over, ready for new job
-            if (machine[theMachine].getJobQ().isEmpty()) // no waiting job
-                eList.setFinishTime(theMachine, largeTime);
-            else {// take job off the queue and work on it
-                machine[theMachine].setActiveJob((Job) machine[theMachine].getJobQ()
-                        .remove());
-                machine[theMachine].setTotalWait(machine[theMachine].getTotalWait() + timeNow
-                        - machine[theMachine].getActiveJob().machineArrivalTime);
-                machine[theMachine].setNumTasks(machine[theMachine].getNumTasks() + 1);
-                int t = machine[theMachine].getActiveJob().removeNextTask();
-                eList.setFinishTime(theMachine, timeNow + t);
-            }
-        } else {// task has just finished on machine[theMachine]
-                // schedule change-over time
-            lastJob = machine[theMachine].getActiveJob();
-            machine[theMachine].setActiveJob(null);
-            eList.setFinishTime(theMachine, timeNow
-                    + machine[theMachine].getChangeTime());
-        }
-
-        return lastJob;
+    public static void runSimulation(SimulationSpecification specification,
+                                     SimulationOptions options, ResultSink sink) {
+        boolean needsObjectGraph = specification.hasReleaseTimes() || options.getListener() != null
+                || options.getCheckpointFile() != null
+                || options.getDispatchPolicy() != DispatchPolicy.FIFO
+                || options.getTaskTimeDistributions() != null;
+        if (options.getEngineKind() == SimulationOptions.EngineKind.FLAT && !needsObjectGraph)
+            new FlatSimulationEngine(specification).run(sink);
+        else if (options.getEngineKind() == SimulationOptions.EngineKind.PARALLEL && !needsObjectGraph)
+            new ParallelSimulationEngine(specification, options.getNumThreads()).run(sink);
+        else
+            new SimulationEngine(specification, options).run(sink);
     }
 
-    private static void setMachineChangeOverTimes(SimulationSpecification specification) {
-        for (int i = 1; i<=specification.getNumMachines(); ++i) {
-            machine[i].setChangeTime(specification.getChangeOverTimes(i));
-        }
+    /**
+     * Run numReplications simulations of specification with the
+     * stochastic task times of options, on the common ForkJoinPool.
+     * Each replication draws from its own stream, split in turn from a
+     * SplittableRandom seeded with the options' seed, so the results
+     * are the same however the runs are scheduled.
+     *
+     * @return the results of each replication
+     */
+    public static SimulationResults[] runReplications(SimulationSpecification specification,
+                                                      SimulationOptions options, int numReplications) {
+        if (options.getTaskTimeDistributions() == null)
+            throw new IllegalArgumentException("replications need stochastic task times");
+        SplittableRandom root = new SplittableRandom(options.getSeed());
+        SplittableRandom[] streams = new SplittableRandom[numReplications];
+        for (int r = 0; r < numReplications; r++)
+            streams[r] = root.split();
+        SimulationResults[] results = new SimulationResults[numReplications];
+        Arrays.parallelSetAll(results, r -> {
+            SimulationEngine engine = new SimulationEngine(specification, options);
+            engine.setRandom(streams[r]);
+            return engine.run();
+        });
+        return results;
     }
 
-    private static void setUpJobs(SimulationSpecification specification) {
-        // input the jobs
-        Job theJob;
-        for (int i = 1; i <= specification.getNumJobs(); i++) {
-            int tasks = specification.jobs[i].numTasks;
-            int firstMachine = 0; // machine for first task
-
-            // create the job
-            theJob = new Job(i);
-            for (int j = 1; j <= tasks; j++) {
-                int theMachine = specification.jobs[i].getSpecificationsForTasks()[2*(j-1)+1];
-                int theTaskTime = specification.jobs[i].getSpecificationsForTasks()[2*(j-1)+2];
-                if (j == 1)
-                    firstMachine = theMachine; // job's first machine
-                theJob.addTask(theMachine, theTaskTime); // add to
-            } // task queue
-            machine[firstMachine].getJobQ().put(theJob);
-        }
+    /**
+     * Run a simulation that takes jobs from jobSource only as the clock
+     * reaches their release times, so only the jobs in the shop are held
+     * in memory. The machines and change-over times come from shop.
+     */
+    public static void runSimulation(SimulationSpecification shop, JobSource jobSource,
+                                     SimulationOptions options, ResultSink sink) {
+        if (options.getEngineKind() != SimulationOptions.EngineKind.OBJECT_GRAPH)
+            throw new IllegalArgumentException("only the object graph engine can take jobs from a JobSource");
+        new SimulationEngine(shop, jobSource, options).run(sink);
     }
 
-    private static void createEventAndMachineQueues(SimulationSpecification specification) {
-        // create event and machine queues
-        eList = new EventList(specification.getNumMachines(), largeTime);
-        machine = new Machine[specification.getNumMachines() + 1];
-        for (int i = 1; i <= specification.getNumMachines(); i++)
-            machine[i] = new Machine();
+    /**
+     * Carry on a simulation of the given specification from the state
+     * saved in checkpointFile. sink first gets the jobs that completed
+     * before the checkpoint, so it sees exactly what an uninterrupted
+     * run would have given it. If options ask for checkpoints the
+     * resumed run keeps writing them.
+     */
+    public static void resumeSimulation(SimulationSpecification specification, SimulationOptions options,
+                                        Path checkpointFile, ResultSink sink) throws IOException {
+        new SimulationEngine(specification, options).resume(checkpointFile, sink);
     }
 
-    /** load first jobs onto each machine
-     * @param specification*/
-    static void startShop(SimulationSpecification specification) {
-        // Move this to startShop when ready
-        MachineShopSimulator.numMachines = specification.getNumMachines();
-        MachineShopSimulator.numJobs = specification.getNumJobs();
-        createEventAndMachineQueues(specification);
-
-        // Move this to startShop when ready
-        setMachineChangeOverTimes(specification);
-
-        // Move this to startShop when ready
-        setUpJobs(specification);
-
-        for (int p = 1; p <= numMachines; p++)
-            changeState(p);
+    /**
+     * Carry on a simulation that takes its jobs from jobSource. The
+     * source must hand out the same jobs as in the interrupted run; the
+     * jobs it had released by the checkpoint are skipped.
+     */
+    public static void resumeSimulation(SimulationSpecification shop, JobSource jobSource,
+                                        SimulationOptions options, Path checkpointFile,
+                                        ResultSink sink) throws IOException {
+        new SimulationEngine(shop, jobSource, options).resume(checkpointFile, sink);
     }
 
-    /** process all jobs to completion
-     * @param simulationResults*/
-    static void simulate(SimulationResults simulationResults) {
-        while (numJobs > 0) {// at least one job left
-            int nextToFinish = eList.nextEventMachine();
-            timeNow = eList.nextEventTime(nextToFinish);
-            // change job on machine nextToFinish
-            Job theJob = changeState(nextToFinish);
-            // move theJob to its next machine
-            // decrement numJobs if theJob has finished
-            if (theJob != null && !moveToNextMachine(theJob, simulationResults)) {
-                simulationResults.addJobToResults(theJob);
-                numJobs--;
-            }
+    /**
+     * Read a specification from file without prompting, in text or in
+     * the format of {@link BinarySpecification}, whichever it is in.
+     */
+    public static SimulationSpecification readSpecification(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0)
+                ;
+            if (!magic.hasRemaining() && magic.getInt(0) == BinarySpecification.MAGIC)
+                return BinarySpecification.read(file);
+            channel.position(0);
+            SpecificationReader reader = new SpecificationReader(new IntegerScanner(channel));
+            reader.setPrompting(false);
+            return reader.readSpecification();
         }
     }
 
-    /** output wait times at machines
-     * @param simulationResults*/
-    static void outputStatistics(SimulationResults simulationResults) {
-        simulationResults.setFinishTime(timeNow);
-        simulationResults.setNumMachines(numMachines);
-        setNumTasksPerMachine(simulationResults);
-        setTotalWaitTimePerMachine(simulationResults);
-    }
-
-    private static void setTotalWaitTimePerMachine(SimulationResults simulationResults) {
-        int[] totalWaitTimePerMachine = new int[numMachines+1];
-        for (int i=1; i<=numMachines; ++i) {
-            totalWaitTimePerMachine[i] = machine[i].getTotalWait();
+    /**
+     * entry point for machine shop simulator. With no arguments it
+     * prompts for the specification on System.in. For batch runs:
+     * <pre>
+     * MachineShopSimulator [--summary-only] input [output]
+     * MachineShopSimulator --quiet input
+     * </pre>
+     * reads the specification from the file input, or from System.in
+     * if input is -, without prompting, and writes the results to the
+     * file output, or to System.out. --summary-only leaves out the
+     * line for each job and --quiet writes nothing at all, so it takes
+     * no output.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            final SpecificationReader specificationReader = new SpecificationReader();
+            SimulationSpecification specification = specificationReader.readSpecification();
+            runSimulation(specification, new SimulationOptions(), new TextResultSink(System.out));
+            return;
         }
-        simulationResults.setTotalWaitTimePerMachine(totalWaitTimePerMachine);
-    }
 
-    private static void setNumTasksPerMachine(SimulationResults simulationResults) {
-        int[] numTasksPerMachine = new int[numMachines+1];
-        for (int i=1; i<=numMachines; ++i) {
-            numTasksPerMachine[i] = machine[i].getNumTasks();
+        boolean summaryOnly = false;
+        boolean quiet = false;
+        int next = 0;
+        for (; next < args.length && args[next].startsWith("--"); next++) {
+            if (args[next].equals("--summary-only"))
+                summaryOnly = true;
+            else if (args[next].equals("--quiet"))
+                quiet = true;
+            else
+                usage();
+        }
+        if (next == args.length || args.length - next > 2)
+            usage();
+        String input = args[next];
+        String output = next + 1 < args.length ? args[next + 1] : null;
+        if (quiet && (summaryOnly || output != null))
+            usage();
+
+        SimulationSpecification specification;
+        if (input.equals("-")) {
+            SpecificationReader reader = new SpecificationReader(new IntegerScanner(System.in));
+            reader.setPrompting(false);
+            specification = reader.readSpecification();
+        } else {
+            specification = readSpecification(Paths.get(input));
         }
-        simulationResults.setNumTasksPerMachine(numTasksPerMachine);
-    }
 
-    public static SimulationResults runSimulation(SimulationSpecification specification) {
-        largeTime = Integer.MAX_VALUE;
-        timeNow = 0;
-        startShop(specification); // initial machine loading
-        SimulationResults simulationResults = new SimulationResults(numJobs);
-        simulate(simulationResults); // run all jobs through shop
-        outputStatistics(simulationResults);
-        return simulationResults;
+        if (quiet) {
+            runSimulation(specification, new SimulationOptions(), new ResultSink() {
+                @Override
+                public void jobCompleted(int jobId, int completionTime, int totalWaitTime) {
+                }
+
+                @Override
+                public void simulationCompleted(int finishTime, int[] numTasksPerMachine,
+                                                int[] totalWaitTimePerMachine) {
+                }
+            });
+        } else if (output == null) {
+            TextResultSink sink = new TextResultSink(System.out);
+            sink.setSummaryOnly(summaryOnly);
+            runSimulation(specification, new SimulationOptions(), sink);
+        } else {
+            try (OutputStream out = Files.newOutputStream(Paths.get(output))) {
+                TextResultSink sink = new TextResultSink(out);
+                sink.setSummaryOnly(summaryOnly);
+                runSimulation(specification, new SimulationOptions(), sink);
+            }
+        }
     }
 
-    /** entry point for machine shop simulator */
-    public static void main(String[] args) {
-        /*
-         * It's vital that we (re)set this to 0 because if the simulator is called
-         * multiple times (as happens in the acceptance tests), because timeNow
-         * is static it ends up carrying over from the last time it was run. I'm
-         * not convinced this is the best place for this to happen, though.
-         */
-        final SpecificationReader specificationReader = new SpecificationReader();
-        SimulationSpecification specification = specificationReader.readSpecification();
-        SimulationResults simulationResults = runSimulation(specification);
-        simulationResults.print();
+    private static void usage() {
+        System.err.println("usage: MachineShopSimulator [--summary-only] input [output]");
+        System.err.println("       MachineShopSimulator --quiet input");
+        System.exit(2);
     }
 }
@@ -0,0 +1,137 @@
+package applications;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A listener that gathers run-time metrics: events handled per second
+ * of wall-clock time, a histogram of how long jobs waited at each
+ * machine and the longest each machine's queue got. Wait times are
+ * counted in power-of-two buckets: bucket 0 holds waits of 0 and
+ * bucket b > 0 waits in [2^(b-1), 2^b). Only counters are updated per
+ * event, so collecting costs little more than the hook itself.
+ *
+ * A collector is for one run at a time.
+ */
+public class MetricsCollector implements SimulationListener {
+    public static final int NUM_BUCKETS = 32;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    // data members
+    private int numMachines;
+    private long numEvents;
+    private long startNanos;
+    private long elapsedNanos;
+    private int finishTime;
+    private long[][] waitHistogram; // [machine][bucket]
+    private int[] maxQueueLength;
+
+    @Override
+    public void simulationStarted(int numMachines) {
+        this.numMachines = numMachines;
+        numEvents = 0;
+        waitHistogram = new long[numMachines + 1][NUM_BUCKETS];
+        maxQueueLength = new int[numMachines + 1];
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void simulationResumed(int time, int[] queueLengths) {
+        for (int p = 1; p <= numMachines; p++)
+            maxQueueLength[p] = queueLengths[p];
+    }
+
+    @Override
+    public void jobArrived(int time, int theMachine, int theJob, int queueLength) {
+        if (queueLength > maxQueueLength[theMachine])
+            maxQueueLength[theMachine] = queueLength;
+    }
+
+    @Override
+    public void taskStarted(int time, int theMachine, int theJob, int waitTime, int taskTime) {
+        numEvents++;
+        waitHistogram[theMachine][bucketOf(waitTime)]++;
+    }
+
+    @Override
+    public void taskFinished(int time, int theMachine, int theJob) {
+        numEvents++;
+    }
+
+    @Override
+    public void machineIdle(int time, int theMachine) {
+        numEvents++;
+    }
+
+    @Override
+    public void simulationFinished(int finishTime) {
+        elapsedNanos = System.nanoTime() - startNanos;
+        this.finishTime = finishTime;
+    }
+
+    /** @return the histogram bucket for waitTime */
+    static int bucketOf(int waitTime) {
+        return 32 - Integer.numberOfLeadingZeros(waitTime);
+    }
+
+    /** @return the smallest wait counted in bucket */
+    public static int bucketLowerBound(int bucket) {
+        return bucket == 0 ? 0 : 1 << (bucket - 1);
+    }
+
+    public int getNumMachines() {
+        return numMachines;
+    }
+
+    /** @return the number of machine events handled */
+    public long getNumEvents() {
+        return numEvents;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** @return machine events handled per second of wall-clock time */
+    public double getEventsPerSecond() {
+        return elapsedNanos == 0 ? 0 : numEvents * 1e9 / elapsedNanos;
+    }
+
+    public int getFinishTime() {
+        return finishTime;
+    }
+
+    /** @return the number of tasks on theMachine whose wait fell in each bucket */
+    public long[] getWaitHistogram(int theMachine) {
+        return Arrays.copyOf(waitHistogram[theMachine], NUM_BUCKETS);
+    }
+
+    /** @return the most jobs ever waiting at once at theMachine */
+    public int getMaxQueueLength(int theMachine) {
+        return maxQueueLength[theMachine];
+    }
+
+    /** write a readable summary of the metrics to out, which is flushed */
+    public void write(Writer out) {
+        try {
+            out.write("Events = " + numEvents + ", " + Math.round(getEventsPerSecond())
+                    + " events/s" + LINE_SEPARATOR);
+            for (int p = 1; p <= numMachines; p++) {
+                out.write("Machine " + p + " max queue length " + maxQueueLength[p]
+                        + LINE_SEPARATOR);
+                out.write("  waits:");
+                long[] histogram = waitHistogram[p];
+                for (int b = 0; b < NUM_BUCKETS; b++) {
+                    if (histogram[b] != 0)
+                        out.write(" >=" + bucketLowerBound(b) + ":" + histogram[b]);
+                }
+                out.write(LINE_SEPARATOR);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package applications;
+
+import java.util.Arrays;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * A machine shop simulation that splits the machines between threads
+ * and gives exactly the same results as {@link SimulationEngine}.
+ *
+ * Machine m belongs to partition (m - 1) % numPartitions. Each
+ * partition keeps its machines' state and event list to itself; jobs
+ * and tasks are held in shared arrays like those of
+ * {@link FlatSimulationEngine}, and a job's entries are only touched by
+ * the partition the job is in.
+ *
+ * The partitions advance together through windows of simulated time
+ * [start, end), synchronizing at two barriers per window. The end of
+ * a window is chosen so that every task finishing inside it started
+ * before it (conservative lookahead): a busy machine can't finish
+ * another task until its current finish time plus its change-over time
+ * plus its shortest task, a machine changing over not before the end
+ * of the change-over plus its shortest task, and an idle machine not
+ * before the earliest finish time anywhere plus its shortest task.
+ * So at the start of a window each partition already knows every job
+ * that will move between machines during it. It hands them to the
+ * partitions of their next machines, and then each partition runs its
+ * events and the arrivals to its machines in the order the sequential
+ * engine would: by time, then by machine, with a job arriving from
+ * machine a taking a's place. Jobs completing in the window are passed
+ * to the ResultSink in the same order, by whichever thread trips the
+ * barrier.
+ *
+ * Specifications with release times aren't supported; use the object
+ * graph engine for those.
+ */
+public class ParallelSimulationEngine {
+    private static final int NO_JOB = 0;
+
+    private final SimulationSpecification specification;
+    private final int largeTime = Integer.MAX_VALUE; // all machines finish before this
+    private int numPartitions;
+    private int numMachines;
+    private int jobsLeft; // jobs not yet completed
+    private int finishTime;
+
+    // tasks, all jobs' tasks back to back in process order; the
+    // specification's own arrays, only read
+    private int[] taskMachine;
+    private int[] taskTime;
+    private final int[] machineShortestTask; // by machine, largeTime if the machine has no tasks
+
+    // jobs, indexed by job number
+    private int[] nextTask; // index in the task arrays of the job's next task
+    private int[] firstTask; // the specification's; job i's tasks end where job i + 1's begin
+    private int[] arrivalTime; // time the job arrived at its current machine
+    private int[] timeRunning; // total time spent on tasks so far
+    private int[] nextInQueue; // next job in the same machine queue, or NO_JOB
+
+    // indexed by machine, the job that finishes a task on it in this window
+    private int[] departingJob;
+
+    private Partition[] partitions;
+    private CyclicBarrier windowStart;
+    private CyclicBarrier windowPublished;
+    private ResultSink sink;
+    private int windowEnd; // set when windowStart trips
+    private boolean done; // set when windowPublished trips
+    private volatile Throwable failure;
+
+    /**
+     * @param numThreads the number of threads to split the machines
+     *                   between; shops with fewer machines use fewer
+     */
+    public ParallelSimulationEngine(SimulationSpecification specification, int numThreads) {
+        if (numThreads < 1)
+            throw new IllegalArgumentException("number of threads must be >= 1");
+        if (specification.hasReleaseTimes())
+            throw new IllegalArgumentException("the parallel engine doesn't support release times");
+        this.specification = specification;
+        this.numPartitions = numThreads;
+
+        // one pass over the tasks here, rather than one per partition
+        machineShortestTask = new int[specification.getNumMachines() + 1];
+        Arrays.fill(machineShortestTask, largeTime);
+        int[] machines = specification.getTaskMachines();
+        int[] times = specification.getTaskTimes();
+        for (int task = 0; task < specification.getTotalTasks(); task++)
+            machineShortestTask[machines[task]] = Math.min(machineShortestTask[machines[task]], times[task]);
+    }
+
+    private void loadTables() {
+        numMachines = specification.getNumMachines();
+        int numJobs = specification.getNumJobs();
+        jobsLeft = numJobs;
+        numPartitions = Math.min(numPartitions, numMachines);
+
+        taskMachine = specification.getTaskMachines();
+        taskTime = specification.getTaskTimes();
+
+        firstTask = specification.getFirstTasks();
+        nextTask = Arrays.copyOf(firstTask, numJobs + 1);
+        arrivalTime = new int[numJobs + 1];
+        timeRunning = new int[numJobs + 1];
+        nextInQueue = new int[numJobs + 1];
+        departingJob = new int[numMachines + 1];
+    }
+
+    private int partitionOf(int theMachine) {
+        return (theMachine - 1) % numPartitions;
+    }
+
+    private int localIndexOf(int theMachine) {
+        return (theMachine - 1) / numPartitions + 1;
+    }
+
+    /** runs when every partition has reported its bounds, starting a window */
+    private void computeWindowEnd() {
+        long end = largeTime;
+        long nextDeparture = largeTime;
+        long idleShortestTask = largeTime;
+        for (Partition partition : partitions) {
+            end = Math.min(end, partition.reportedBound);
+            nextDeparture = Math.min(nextDeparture, partition.reportedNextDeparture);
+            idleShortestTask = Math.min(idleShortestTask, partition.reportedIdleShortestTask);
+        }
+        end = Math.min(end, nextDeparture + idleShortestTask);
+        windowEnd = (int) Math.min(end, largeTime);
+    }
+
+    /** runs when every partition has published its departures */
+    private void completeJobs() {
+        if (failure != null) {
+            done = true;
+            return;
+        }
+        LongList completions = partitions[0].completions;
+        for (int p = 1; p < numPartitions; p++)
+            completions.addAll(partitions[p].completions);
+        completions.sort();
+        for (int k = 0; k < completions.size(); k++) {
+            long key = completions.get(k);
+            int time = (int) (key >>> 32);
+            int theJob = departingJob[(int) key];
+            sink.jobCompleted(theJob, time, time - timeRunning[theJob]);
+            finishTime = time;
+            jobsLeft--;
+        }
+        done = jobsLeft == 0;
+    }
+
+    /** run the specification through the shop, collecting the results */
+    public SimulationResults run() {
+        SimulationResults simulationResults = new SimulationResults(specification.getNumJobs());
+        run(simulationResults);
+        return simulationResults;
+    }
+
+    /** run the specification through the shop, streaming the results to sink */
+    public void run(ResultSink sink) {
+        this.sink = sink;
+        loadTables();
+        partitions = new Partition[numPartitions];
+        for (int p = 0; p < numPartitions; p++)
+            partitions[p] = new Partition(p);
+        // queue every job at its first machine before any task starts
+        for (int theJob = 1; theJob < nextTask.length; theJob++) {
+            int firstMachine = taskMachine[nextTask[theJob]];
+            partitions[partitionOf(firstMachine)].enqueue(localIndexOf(firstMachine), theJob);
+        }
+        for (Partition partition : partitions)
+            partition.startShop();
+        windowStart = new CyclicBarrier(numPartitions, guarded(this::computeWindowEnd));
+        windowPublished = new CyclicBarrier(numPartitions, guarded(this::completeJobs));
+
+        Thread[] threads = new Thread[numPartitions - 1];
+        for (int p = 1; p < numPartitions; p++) {
+            threads[p - 1] = new Thread(partitions[p], "simulation partition " + p);
+            threads[p - 1].start();
+        }
+        partitions[0].run();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while simulating", e);
+            }
+        }
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        if (failure != null)
+            throw new IllegalStateException("simulation partition failed", failure);
+
+        int[] numTasksPerMachine = new int[numMachines + 1];
+        int[] totalWaitTimePerMachine = new int[numMachines + 1];
+        for (int m = 1; m <= numMachines; m++) {
+            Partition partition = partitions[partitionOf(m)];
+            numTasksPerMachine[m] = partition.tasksDone[localIndexOf(m)];
+            totalWaitTimePerMachine[m] = partition.totalWait[localIndexOf(m)];
+        }
+        sink.simulationCompleted(finishTime, numTasksPerMachine, totalWaitTimePerMachine);
+    }
+
+    /**
+     * a barrier action that records its failure and ends the run, rather
+     * than throwing into whichever thread tripped the barrier; run
+     * rethrows the failure once every partition has stopped
+     */
+    private Runnable guarded(Runnable action) {
+        return () -> {
+            try {
+                action.run();
+            } catch (RuntimeException | Error e) {
+                fail(e);
+                done = true;
+            }
+        };
+    }
+
+    private synchronized void fail(Throwable e) {
+        if (failure == null)
+            failure = e;
+    }
+
+    /** the machines of one thread, indexed locally from 1 in machine order */
+    private class Partition implements Runnable {
+        private final int id;
+        private final int numLocal;
+
+        // machines
+        private final int[] changeTime;
+        private final int[] shortestTask; // largeTime if the machine has no tasks
+        private final int[] totalWait;
+        private final int[] tasksDone;
+        private final int[] activeJob; // NO_JOB when idle or changing over
+        private final int[] queueFront;
+        private final int[] queueRear;
+
+        private final EventList eList; // machine events
+        private final EventList departures; // finish times of tasks not yet published
+        private final EventList bounds; // earliest finish of each machine's next unknown task
+        private final EventList idleShortestTask; // shortest task of each idle machine
+
+        // departures as (time << 32 | machine) keys
+        private final LongList[] outbox; // indexed by destination partition
+        private final LongList completions = new LongList();
+        private final LongList inbox = new LongList();
+
+        // reported at the start of each window
+        private long reportedBound;
+        private long reportedNextDeparture;
+        private long reportedIdleShortestTask;
+
+        Partition(int id) {
+            this.id = id;
+            numLocal = (numMachines - id + numPartitions - 1) / numPartitions;
+            changeTime = new int[numLocal + 1];
+            shortestTask = new int[numLocal + 1];
+            totalWait = new int[numLocal + 1];
+            tasksDone = new int[numLocal + 1];
+            activeJob = new int[numLocal + 1];
+            queueFront = new int[numLocal + 1];
+            queueRear = new int[numLocal + 1];
+            for (int i = 1; i <= numLocal; i++) {
+                changeTime[i] = specification.getChangeOverTimes(machineOf(i));
+                shortestTask[i] = machineShortestTask[machineOf(i)];
+            }
+            eList = new EventList(numLocal, largeTime);
+            departures = new EventList(numLocal, largeTime);
+            bounds = new EventList(numLocal, largeTime);
+            idleShortestTask = new EventList(numLocal, largeTime);
+            outbox = new LongList[numPartitions];
+            for (int p = 0; p < numPartitions; p++)
+                outbox[p] = new LongList();
+        }
+
+        private int machineOf(int localIndex) {
+            return (localIndex - 1) * numPartitions + id + 1;
+        }
+
+        private void enqueue(int i, int theJob) {
+            nextInQueue[theJob] = NO_JOB;
+            if (queueFront[i] == NO_JOB)
+                queueFront[i] = theJob;
+            else
+                nextInQueue[queueRear[i]] = theJob;
+            queueRear[i] = theJob;
+        }
+
+        private int dequeue(int i) {
+            int theJob = queueFront[i];
+            queueFront[i] = nextInQueue[theJob];
+            if (queueFront[i] == NO_JOB)
+                queueRear[i] = NO_JOB;
+            return theJob;
+        }
+
+        private int saturate(long time) {
+            return (int) Math.min(time, largeTime);
+        }
+
+        /** take the job at the front of machine i's queue and start its task */
+        private void startTask(int i, int timeNow) {
+            int theJob = dequeue(i);
+            activeJob[i] = theJob;
+            totalWait[i] += timeNow - arrivalTime[theJob];
+            tasksDone[i]++;
+            int t = taskTime[nextTask[theJob]++];
+            timeRunning[theJob] += t;
+            int finish = timeNow + t;
+            eList.setFinishTime(i, finish);
+            departures.setFinishTime(i, finish);
+            bounds.setFinishTime(i, saturate((long) finish + changeTime[i] + shortestTask[i]));
+            idleShortestTask.setFinishTime(i, largeTime);
+        }
+
+        /** machine i's event at timeNow: a task or change-over has ended */
+        private void changeState(int i, int timeNow) {
+            if (activeJob[i] != NO_JOB) {// task finished, the job was already handed on
+                activeJob[i] = NO_JOB;
+                int changeOverEnd = timeNow + changeTime[i];
+                eList.setFinishTime(i, changeOverEnd);
+                bounds.setFinishTime(i, saturate((long) changeOverEnd + shortestTask[i]));
+            } else if (queueFront[i] == NO_JOB) {// nothing to do, go idle
+                eList.setFinishTime(i, largeTime);
+                bounds.setFinishTime(i, largeTime);
+                idleShortestTask.setFinishTime(i, shortestTask[i]);
+            } else {
+                startTask(i, timeNow);
+            }
+        }
+
+        /** theJob arrives at machine i at timeNow */
+        private void arrive(int i, int theJob, int timeNow) {
+            enqueue(i, theJob);
+            arrivalTime[theJob] = timeNow;
+            if (eList.nextEventTime(i) == largeTime)// machine is idle
+                startTask(i, timeNow);
+        }
+
+        /** start the jobs queued at this partition's machines */
+        void startShop() {
+            for (int i = 1; i <= numLocal; i++)
+                changeState(i, 0);
+        }
+
+        private void reportBounds() {
+            reportedBound = bounds.nextEventTime(bounds.nextEventMachine());
+            reportedNextDeparture = departures.nextEventTime(departures.nextEventMachine());
+            reportedIdleShortestTask = idleShortestTask.nextEventTime(idleShortestTask.nextEventMachine());
+        }
+
+        /** hand on every job finishing a task before end */
+        private void publishDepartures(int end) {
+            for (LongList list : outbox)
+                list.clear();
+            completions.clear();
+            while (true) {
+                int i = departures.nextEventMachine();
+                int finish = departures.nextEventTime(i);
+                if (finish >= end)
+                    break;
+                departures.setFinishTime(i, largeTime);
+                int theJob = activeJob[i];
+                int theMachine = machineOf(i);
+                departingJob[theMachine] = theJob;
+                long key = ((long) finish << 32) | theMachine;
+                if (nextTask[theJob] == firstTask[theJob + 1])
+                    completions.add(key);
+                else
+                    outbox[partitionOf(taskMachine[nextTask[theJob]])].add(key);
+            }
+        }
+
+        /** run this partition's events and arrivals before end */
+        private void runWindow(int end) {
+            inbox.clear();
+            for (Partition source : partitions)
+                inbox.addAll(source.outbox[id]);
+            inbox.sort();
+            int next = 0;
+            while (true) {
+                int i = eList.nextEventMachine();
+                int eventTime = eList.nextEventTime(i);
+                if (next < inbox.size()) {
+                    long key = inbox.get(next);
+                    int arrival = (int) (key >>> 32);
+                    int source = (int) key;
+                    if (arrival < eventTime || (arrival == eventTime && source < machineOf(i))) {
+                        next++;
+                        int theJob = departingJob[source];
+                        arrive(localIndexOf(taskMachine[nextTask[theJob]]), theJob, arrival);
+                        continue;
+                    }
+                }
+                if (eventTime >= end)
+                    break;
+                changeState(i, eventTime);
+            }
+        }
+
+        /*
+         * A partition that fails records why and carries on through the
+         * barriers, so the others aren't left waiting for it; the window
+         * it fails in is the last.
+         */
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    try {
+                        reportBounds();
+                    } catch (RuntimeException | Error e) {
+                        fail(e);
+                    }
+                    windowStart.await();
+                    try {
+                        publishDepartures(windowEnd);
+                    } catch (RuntimeException | Error e) {
+                        fail(e);
+                    }
+                    windowPublished.await();
+                    if (done)
+                        return;
+                    try {
+                        runWindow(windowEnd);
+                    } catch (RuntimeException | Error e) {
+                        fail(e);
+                    }
+                }
+            } catch (BrokenBarrierException e) {
+                // another partition was interrupted
+            } catch (InterruptedException e) {
+                fail(e); // leaves the barrier broken for the others
+            }
+        }
+    }
+
+    /** a growable array of longs */
+    private static final class LongList {
+        private long[] elements = new long[16];
+        private int size;
+
+        void add(long element) {
+            if (size == elements.length)
+                elements = Arrays.copyOf(elements, 2 * size);
+            elements[size++] = element;
+        }
+
+        void addAll(LongList other) {
+            if (size + other.size > elements.length)
+                elements = Arrays.copyOf(elements, Math.max(2 * elements.length, size + other.size));
+            System.arraycopy(other.elements, 0, elements, size, other.size);
+            size += other.size;
+        }
+
+        long get(int index) {
+            return elements[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void sort() {
+            Arrays.sort(elements, 0, size);
+        }
+    }
+}
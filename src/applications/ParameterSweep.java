@@ -0,0 +1,162 @@
+package applications;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * A list of named variations of a base specification to simulate, for
+ * example different change-over times or job mixes. A variation builds
+ * a new specification from the base and must not modify the base,
+ * since variants are built and run in parallel; unchanged parts such as
+ * task arrays can be shared.
+ */
+public class ParameterSweep {
+    private final List<String> names = new ArrayList<>();
+    private final List<UnaryOperator<SimulationSpecification>> variations = new ArrayList<>();
+
+    public ParameterSweep addVariant(String name, UnaryOperator<SimulationSpecification> variation) {
+        names.add(name);
+        variations.add(variation);
+        return this;
+    }
+
+    public int getNumVariants() {
+        return names.size();
+    }
+
+    public String getVariantName(int variantIndex) {
+        return names.get(variantIndex);
+    }
+
+    /** @return the specification of the variant with the given index */
+    public SimulationSpecification createVariant(SimulationSpecification base, int variantIndex) {
+        return variations.get(variantIndex).apply(base);
+    }
+
+    /**
+     * @return a sweep with a variant for every pair of a variant of this
+     * sweep followed by a variant of other, named "this name, other name"
+     */
+    public ParameterSweep cross(ParameterSweep other) {
+        ParameterSweep result = new ParameterSweep();
+        for (int i = 0; i < getNumVariants(); i++) {
+            for (int j = 0; j < other.getNumVariants(); j++) {
+                UnaryOperator<SimulationSpecification> first = variations.get(i);
+                UnaryOperator<SimulationSpecification> second = other.variations.get(j);
+                result.addVariant(names.get(i) + ", " + other.names.get(j),
+                        base -> second.apply(first.apply(base)));
+            }
+        }
+        return result;
+    }
+
+    /** @return a variation that leaves the specification as it is */
+    public static UnaryOperator<SimulationSpecification> unchanged() {
+        return base -> base;
+    }
+
+    /** @return a variation that sets every machine's change-over time */
+    public static UnaryOperator<SimulationSpecification> allChangeOverTimes(int changeOverTime) {
+        return base -> {
+            int[] changeOverTimes = new int[base.getNumMachines() + 1];
+            for (int p = 1; p <= base.getNumMachines(); p++)
+                changeOverTimes[p] = changeOverTime;
+            return withChangeOverTimes(base, changeOverTimes);
+        };
+    }
+
+    /**
+     * @return a variation that multiplies every change-over time by
+     * factor, rounding to the nearest int
+     */
+    public static UnaryOperator<SimulationSpecification> scaleChangeOverTimes(double factor) {
+        if (factor < 0)
+            throw new IllegalArgumentException(MachineShopSimulator.CHANGE_OVER_TIME_MUST_BE_AT_LEAST_0);
+        return base -> {
+            int[] changeOverTimes = new int[base.getNumMachines() + 1];
+            for (int p = 1; p <= base.getNumMachines(); p++)
+                changeOverTimes[p] = (int) Math.round(base.getChangeOverTimes(p) * factor);
+            return withChangeOverTimes(base, changeOverTimes);
+        };
+    }
+
+    /** @return a variation that changes one machine's change-over time */
+    public static UnaryOperator<SimulationSpecification> changeOverTime(int theMachine, int changeOverTime) {
+        if (changeOverTime < 0)
+            throw new IllegalArgumentException(MachineShopSimulator.CHANGE_OVER_TIME_MUST_BE_AT_LEAST_0);
+        return base -> {
+            int[] changeOverTimes = new int[base.getNumMachines() + 1];
+            for (int p = 1; p <= base.getNumMachines(); p++)
+                changeOverTimes[p] = base.getChangeOverTimes(p);
+            changeOverTimes[theMachine] = changeOverTime;
+            return withChangeOverTimes(base, changeOverTimes);
+        };
+    }
+
+    /**
+     * @return a variation with copiesOfJob[i] copies of base job i, for
+     * i from 1; copies of the same job follow each other and all jobs
+     * are renumbered from 1 in that order
+     */
+    public static UnaryOperator<SimulationSpecification> jobMix(int... copiesOfJob) {
+        return base -> {
+            if (copiesOfJob.length != base.getNumJobs() + 1)
+                throw new IllegalArgumentException("need a number of copies for each job");
+            int numJobs = 0;
+            for (int i = 1; i <= base.getNumJobs(); i++)
+                numJobs += copiesOfJob[i];
+            if (numJobs < 1)
+                throw new IllegalArgumentException(MachineShopSimulator.NUMBER_OF_MACHINES_AND_JOBS_MUST_BE_AT_LEAST_1);
+
+            SimulationSpecification variant = new SimulationSpecification();
+            variant.setNumMachines(base.getNumMachines());
+            variant.setNumJobs(numJobs);
+            variant.setChangeOverTimes(changeOverTimesOf(base));
+            int[] firstTask = new int[numJobs + 2];
+            int next = 1;
+            for (int i = 1; i <= base.getNumJobs(); i++) {
+                for (int copy = 0; copy < copiesOfJob[i]; copy++, next++)
+                    firstTask[next + 1] = firstTask[next] + base.getNumTasks(i);
+            }
+            int[] taskMachines = new int[firstTask[numJobs + 1]];
+            int[] taskTimes = new int[taskMachines.length];
+            next = 1;
+            for (int i = 1; i <= base.getNumJobs(); i++) {
+                for (int copy = 0; copy < copiesOfJob[i]; copy++, next++) {
+                    for (int k = base.getFirstTask(i), task = firstTask[next]; k < base.getFirstTask(i + 1); k++, task++) {
+                        taskMachines[task] = base.getTaskMachine(k);
+                        taskTimes[task] = base.getTaskTime(k);
+                    }
+                }
+            }
+            variant.setTasks(firstTask, taskMachines, taskTimes);
+            next = 1;
+            for (int i = 1; i <= base.getNumJobs(); i++) {
+                for (int copy = 0; copy < copiesOfJob[i]; copy++, next++) {
+                    variant.setReleaseTime(next, base.getReleaseTime(i));
+                    variant.setDueDate(next, base.getDueDate(i));
+                }
+            }
+            return variant;
+        };
+    }
+
+    private static int[] changeOverTimesOf(SimulationSpecification base) {
+        int[] changeOverTimes = new int[base.getNumMachines() + 1];
+        for (int p = 1; p <= base.getNumMachines(); p++)
+            changeOverTimes[p] = base.getChangeOverTimes(p);
+        return changeOverTimes;
+    }
+
+    /** @return a specification sharing base's jobs with new change-over times */
+    private static SimulationSpecification withChangeOverTimes(SimulationSpecification base,
+                                                               int[] changeOverTimes) {
+        SimulationSpecification variant = new SimulationSpecification();
+        variant.setNumMachines(base.getNumMachines());
+        variant.setNumJobs(base.getNumJobs());
+        variant.setChangeOverTimes(changeOverTimes);
+        variant.shareJobs(base);
+        return variant;
+    }
+}
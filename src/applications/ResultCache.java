@@ -0,0 +1,290 @@
+package applications;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the results of simulations, so that simulating a
+ * specification again costs a hash of it instead of a run. Results are
+ * looked up by a SHA-256 hash of the specification's content (its
+ * machines, change-over times, jobs and their tasks) and the dispatch
+ * policy, so two specifications built separately with the same content
+ * share an entry.
+ *
+ * The most recently used results are kept in memory, up to maxSize
+ * completed jobs and machines between them. When the cache has a
+ * directory every result is also written there, one file per
+ * specification named by its hash, so results outlive the process and
+ * can be shared between processes using the same directory.
+ *
+ * Runs with a listener, checkpoints or stochastic task times aren't
+ * cached, since what they do is more than their results; they are
+ * simulated every time and count as neither hits nor misses. The engine
+ * kind, queue kind and number of threads don't change results, so they
+ * aren't part of the key.
+ */
+public class ResultCache {
+    static final int MAGIC = 0x4D535243; // "MSRC"
+    static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** the results of one simulation, never changed once made */
+    private static final class Entry {
+        final int finishTime;
+        final int[] numTasksPerMachine;
+        final int[] totalWaitTimePerMachine;
+        final int[] jobIds;
+        final int[] completionTimes;
+        final int[] totalWaitTimes;
+
+        Entry(int finishTime, int[] numTasksPerMachine, int[] totalWaitTimePerMachine,
+              int[] jobIds, int[] completionTimes, int[] totalWaitTimes) {
+            this.finishTime = finishTime;
+            this.numTasksPerMachine = numTasksPerMachine;
+            this.totalWaitTimePerMachine = totalWaitTimePerMachine;
+            this.jobIds = jobIds;
+            this.completionTimes = completionTimes;
+            this.totalWaitTimes = totalWaitTimes;
+        }
+
+        Entry(SimulationResults results) {
+            this(results.getFinishTime(), results.getNumTasksPerMachine(),
+                    results.getTotalWaitTimePerMachine(), new int[results.getNumCompletedJobs()],
+                    new int[results.getNumCompletedJobs()], new int[results.getNumCompletedJobs()]);
+            Job[] jobs = results.getJobs();
+            for (int i = 0; i < jobs.length; i++) {
+                jobIds[i] = jobs[i].getId();
+                completionTimes[i] = jobs[i].completionTime;
+                totalWaitTimes[i] = jobs[i].totalWaitTime;
+            }
+        }
+
+        int size() {
+            return jobIds.length + numTasksPerMachine.length;
+        }
+
+        /** @return new results equal to the ones this entry was made from */
+        SimulationResults toResults() {
+            SimulationResults results = new SimulationResults(jobIds.length);
+            for (int i = 0; i < jobIds.length; i++)
+                results.jobCompleted(jobIds[i], completionTimes[i], totalWaitTimes[i]);
+            results.simulationCompleted(finishTime, numTasksPerMachine.clone(),
+                    totalWaitTimePerMachine.clone());
+            return results;
+        }
+    }
+
+    private final int maxSize;
+    private final Path directory; // null for memory only
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int size = 0; // of the entries in memory
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxSize   the most completed jobs and machines, summed over
+     *                  the results kept in memory
+     * @param directory where results are stored on disk, created if
+     *                  need be; null to keep them in memory only
+     */
+    public ResultCache(int maxSize, Path directory) throws IOException {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("size must be >= 0");
+        this.maxSize = maxSize;
+        this.directory = directory;
+        if (directory != null)
+            Files.createDirectories(directory);
+    }
+
+    public SimulationResults runSimulation(SimulationSpecification specification) {
+        return runSimulation(specification, new SimulationOptions());
+    }
+
+    /**
+     * @return the results of simulating specification with options,
+     * from the cache if it has them and otherwise from a run that is
+     * then cached. Callers may change the results they get.
+     */
+    public SimulationResults runSimulation(SimulationSpecification specification,
+                                           SimulationOptions options) {
+        if (options.getListener() != null || options.getCheckpointFile() != null
+                || options.getTaskTimeDistributions() != null)
+            return MachineShopSimulator.runSimulation(specification, options);
+        String key = key(specification, options.getDispatchPolicy());
+        Entry entry = get(key);
+        if (entry == null && directory != null) {
+            entry = readEntry(key);
+            if (entry != null)
+                put(key, entry);
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.toResults();
+        }
+        misses.incrementAndGet();
+        SimulationResults results = MachineShopSimulator.runSimulation(specification, options);
+        entry = new Entry(results);
+        put(key, entry);
+        if (directory != null)
+            writeEntry(key, entry);
+        return results;
+    }
+
+    /** @return the number of runs answered from memory or disk */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** @return the number of runs that had to be simulated */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** @return the number of results held in memory */
+    public synchronized int getNumEntries() {
+        return entries.size();
+    }
+
+    private synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /** keep entry in memory, dropping the least recently used entries to make room */
+    private synchronized void put(String key, Entry entry) {
+        if (entry.size() > maxSize)
+            return;
+        Entry old = entries.put(key, entry);
+        size += entry.size() - (old == null ? 0 : old.size());
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (size > maxSize) {
+            size -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    private Entry readEntry(String key) {
+        try (InputStream fileIn = Files.newInputStream(directory.resolve(key))) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn, BUFFER_SIZE));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(key))
+                return null; // not ours, or an old format; simulate and replace it
+            int finishTime = in.readInt();
+            int numMachines = in.readInt();
+            int[] numTasksPerMachine = new int[numMachines + 1];
+            int[] totalWaitTimePerMachine = new int[numMachines + 1];
+            for (int p = 1; p <= numMachines; p++) {
+                numTasksPerMachine[p] = in.readInt();
+                totalWaitTimePerMachine[p] = in.readInt();
+            }
+            int numJobs = in.readInt();
+            int[] jobIds = new int[numJobs];
+            int[] completionTimes = new int[numJobs];
+            int[] totalWaitTimes = new int[numJobs];
+            for (int i = 0; i < numJobs; i++) {
+                jobIds[i] = in.readInt();
+                completionTimes[i] = in.readInt();
+                totalWaitTimes[i] = in.readInt();
+            }
+            return new Entry(finishTime, numTasksPerMachine, totalWaitTimePerMachine,
+                    jobIds, completionTimes, totalWaitTimes);
+        } catch (IOException e) {
+            return null; // no file, or one cut short by a full disk; simulate and replace it
+        }
+    }
+
+    /**
+     * store entry in key's file, writing a temporary file and renaming
+     * it so that readers never see part of a file
+     */
+    private void writeEntry(String key, Entry entry) {
+        Path file = directory.resolve(key);
+        try {
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            try {
+                try (FileOutputStream fileOut = new FileOutputStream(temporary.toFile())) {
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeUTF(key);
+                    out.writeInt(entry.finishTime);
+                    int numMachines = entry.numTasksPerMachine.length - 1;
+                    out.writeInt(numMachines);
+                    for (int p = 1; p <= numMachines; p++) {
+                        out.writeInt(entry.numTasksPerMachine[p]);
+                        out.writeInt(entry.totalWaitTimePerMachine[p]);
+                    }
+                    out.writeInt(entry.jobIds.length);
+                    for (int i = 0; i < entry.jobIds.length; i++) {
+                        out.writeInt(entry.jobIds[i]);
+                        out.writeInt(entry.completionTimes[i]);
+                        out.writeInt(entry.totalWaitTimes[i]);
+                    }
+                    out.flush();
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the hex SHA-256 hash of the dispatch policy and the
+     * content of specification
+     */
+    static String key(SimulationSpecification specification, DispatchPolicy dispatchPolicy) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every Java platform has SHA-256
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.putInt(VERSION);
+        buffer.putInt(dispatchPolicy.ordinal());
+        buffer.putInt(specification.getNumMachines());
+        buffer.putInt(specification.getNumJobs());
+        for (int p = 1; p <= specification.getNumMachines(); p++)
+            putInt(digest, buffer, specification.getChangeOverTimes(p));
+        for (int i = 1; i <= specification.getNumJobs(); i++) {
+            putInt(digest, buffer, specification.getReleaseTime(i));
+            putInt(digest, buffer, specification.getDueDate(i));
+            putInt(digest, buffer, specification.getNumTasks(i));
+        }
+        int[] taskMachines = specification.getTaskMachines();
+        int[] taskTimes = specification.getTaskTimes();
+        for (int k = 0; k < specification.getTotalTasks(); k++) {
+            putInt(digest, buffer, taskMachines[k]);
+            putInt(digest, buffer, taskTimes[k]);
+        }
+        digest.update(buffer.array(), 0, buffer.position());
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest())
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        return hex.toString();
+    }
+
+    private static void putInt(MessageDigest digest, ByteBuffer buffer, int value) {
+        if (buffer.remaining() < Integer.BYTES) {
+            digest.update(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+        buffer.putInt(value);
+    }
+}
@@ -0,0 +1,17 @@
+package applications;
+
+/**
+ * Receives the results of a simulation as they are produced: one call
+ * per job as it completes, in completion order, and then one call with
+ * the shop-wide totals once the last job is done.
+ */
+public interface ResultSink {
+    public void jobCompleted(int jobId, int completionTime, int totalWaitTime);
+
+    /**
+     * @param numTasksPerMachine      indexed by machine, element 0 is unused
+     * @param totalWaitTimePerMachine indexed by machine, element 0 is unused
+     */
+    public void simulationCompleted(int finishTime, int[] numTasksPerMachine,
+                                    int[] totalWaitTimePerMachine);
+}
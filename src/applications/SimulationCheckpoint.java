@@ -0,0 +1,92 @@
+package applications;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import exceptions.MyInputException;
+
+/**
+ * Reads and writes the binary checkpoint files of a
+ * {@link SimulationEngine}. A file starts with a magic number, a format
+ * version and a fingerprint of the specification, followed by the
+ * engine's state as written by SimulationEngine.saveState. Files are
+ * written to a temporary file that is synced and then renamed over the
+ * old checkpoint, so a crash while writing leaves the previous
+ * checkpoint intact.
+ */
+final class SimulationCheckpoint {
+    static final int MAGIC = 0x4D534350; // "MSCP"
+    static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SimulationCheckpoint() {
+    }
+
+    /** replace file with a checkpoint of engine's current state */
+    static void write(Path file, SimulationEngine engine, long fingerprint) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temporary.toFile())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            engine.saveState(out);
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * restore engine to the state in file, replaying the jobs completed
+     * before the checkpoint to sink
+     */
+    static void read(Path file, SimulationEngine engine, long fingerprint, ResultSink sink) throws IOException {
+        try (InputStream fileIn = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn, BUFFER_SIZE));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new MyInputException(MachineShopSimulator.NOT_A_CHECKPOINT);
+            if (in.readLong() != fingerprint)
+                throw new MyInputException(MachineShopSimulator.CHECKPOINT_IS_FOR_ANOTHER_SPECIFICATION);
+            engine.restoreState(in, sink);
+        }
+    }
+
+    /**
+     * @return a hash of the dispatch policy and the machines, change-over
+     * times and, when the specification holds them, the jobs of
+     * specification
+     */
+    static long fingerprint(SimulationSpecification specification, DispatchPolicy dispatchPolicy) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, dispatchPolicy.ordinal());
+        hash = mix(hash, specification.getNumMachines());
+        hash = mix(hash, specification.getNumJobs());
+        for (int p = 1; p <= specification.getNumMachines(); p++)
+            hash = mix(hash, specification.getChangeOverTimes(p));
+        if (specification.hasJobs()) {
+            for (int i = 1; i <= specification.getNumJobs(); i++) {
+                hash = mix(hash, specification.getReleaseTime(i));
+                hash = mix(hash, specification.getDueDate(i));
+                hash = mix(hash, specification.getNumTasks(i));
+                for (int k = specification.getFirstTask(i); k < specification.getFirstTask(i + 1); k++) {
+                    hash = mix(hash, specification.getTaskMachine(k));
+                    hash = mix(hash, specification.getTaskTime(k));
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * 0x100000001b3L;
+    }
+}
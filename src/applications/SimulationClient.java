@@ -0,0 +1,178 @@
+package applications;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * A connection to a {@link SimulationServer}. Requests can be sent
+ * back to back without waiting for their responses, which come back
+ * in the order the simulations finish. The server stops reading while
+ * a connection has a few requests in flight and their responses are
+ * unread, so a client sending many requests must receive on another
+ * thread as it sends, as main does. One thread may send while another
+ * receives; otherwise a client is not thread-safe.
+ */
+public class SimulationClient implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private int numRequests; // requests sent so far
+
+    /** connect to the server on port of the loopback interface */
+    public SimulationClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+    }
+
+    /**
+     * Send a specification in the text or binary format.
+     *
+     * @return the number the response will carry
+     */
+    public int send(byte[] specification) throws IOException {
+        out.writeInt(specification.length);
+        out.write(specification);
+        out.flush();
+        return numRequests++;
+    }
+
+    /** tell the server no more requests are coming */
+    public void finishSending() throws IOException {
+        out.flush();
+        socket.shutdownOutput();
+    }
+
+    /** @return the next response, waiting for it if need be */
+    public Response receive() throws IOException {
+        int requestNumber = in.readInt();
+        int status = in.readInt();
+        long latencyNanos = in.readLong();
+        byte[] output = new byte[in.readInt()];
+        in.readFully(output);
+        return new Response(requestNumber, status, latencyNanos,
+                new String(output, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /** the server's answer to one request */
+    public static class Response {
+        private final int requestNumber;
+        private final int status;
+        private final long latencyNanos;
+        private final String output;
+
+        Response(int requestNumber, int status, long latencyNanos, String output) {
+            this.requestNumber = requestNumber;
+            this.status = status;
+            this.latencyNanos = latencyNanos;
+            this.output = output;
+        }
+
+        public int getRequestNumber() {
+            return requestNumber;
+        }
+
+        /** @return SimulationServer.OK, INPUT_ERROR or FAILED */
+        public int getStatus() {
+            return status;
+        }
+
+        /** @return the time the server took, from reading the request to finishing its run */
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        /** @return the simulation's output, or the error message */
+        public String getOutput() {
+            return output;
+        }
+    }
+
+    /**
+     * Send specification files to a server and print each one's output,
+     * in the order given, after a line with its name and latency.
+     * Usage: SimulationClient port file...
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: SimulationClient port file...");
+            System.exit(2);
+        }
+        int numFiles = args.length - 1;
+        // read every file before sending any, so a bad one fails the run up front
+        byte[][] requests = new byte[numFiles][];
+        for (int i = 0; i < numFiles; i++)
+            requests[i] = Files.readAllBytes(Paths.get(args[i + 1]));
+        Response[] responses = new Response[numFiles];
+        IOException[] receiveFailure = new IOException[1];
+        try (SimulationClient client = new SimulationClient(Integer.parseInt(args[0]))) {
+            // receive as we send, so the server never waits for us to read
+            Thread receiver = new Thread(() -> {
+                try {
+                    for (int i = 0; i < numFiles; i++) {
+                        Response response = client.receive();
+                        responses[response.getRequestNumber()] = response;
+                    }
+                } catch (IOException e) {
+                    receiveFailure[0] = e;
+                }
+            }, "simulation client receiver");
+            receiver.start();
+            try {
+                for (byte[] request : requests)
+                    client.send(request);
+                client.finishSending();
+            } catch (IOException e) {
+                client.close(); // so the receiver stops waiting for responses that won't come
+                throw e;
+            } finally {
+                joinUninterruptibly(receiver);
+            }
+        }
+        if (receiveFailure[0] != null)
+            throw receiveFailure[0];
+        int failures = 0;
+        for (int i = 0; i < numFiles; i++) {
+            Response response = responses[i];
+            System.out.printf("%s: %d us%s%n", args[i + 1], response.getLatencyNanos() / 1000,
+                    response.getStatus() == SimulationServer.OK ? "" : ", failed");
+            System.out.print(response.getOutput());
+            if (response.getStatus() != SimulationServer.OK) {
+                System.out.println();
+                failures++;
+            }
+        }
+        if (failures > 0)
+            System.exit(1);
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+}
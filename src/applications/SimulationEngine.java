@@ -0,0 +1,525 @@
+package applications;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import dataStructures.Queue;
+
+/**
+ * Runs a single machine shop simulation. All of the simulation state
+ * lives in the engine instance, so independent engines can run at the
+ * same time on different threads. An engine is not itself thread-safe
+ * and is meant to be run once.
+ */
+public class SimulationEngine {
+    // data members of SimulationEngine
+    private final SimulationSpecification specification;
+    private final SimulationOptions options;
+    private final JobSource jobSource; // null when all jobs start in the shop at time 0
+    private final SimulationListener listener; // null when no one is listening
+    private int timeNow; // current time
+    private int numMachines; // number of machines
+    private int numJobs; // number of jobs in the shop
+    private EventList eList; // pointer to event list
+    private Machine[] machine; // array of machines
+    private final int largeTime = Integer.MAX_VALUE; // all machines finish before this
+
+    // checkpoints, used only when options ask for them
+    private final Path checkpointFile; // null when not checkpointing
+    private final long checkpointInterval; // events between checkpoints
+    private long eventsSinceCheckpoint;
+    private long fingerprint; // of the specification and dispatch policy, 0 until needed
+    private int jobsReleased; // jobs taken from jobSource so far
+    private int[] completedJobs; // (id, completion time, total wait) of each completed job
+    private int numCompletedJobs;
+
+    // stochastic task times, used only when options ask for them
+    private final TaskTimeDistribution[] taskTimeDistributions; // by machine, null for the specified times
+    private SplittableRandom random;
+
+    // in-memory snapshots for an IncrementalSimulator, used only when set
+    private SnapshotLog snapshotLog; // null when not taking snapshots
+    private long eventsSinceSnapshot;
+
+    public SimulationEngine(SimulationSpecification specification) {
+        this(specification, new SimulationOptions());
+    }
+
+    public SimulationEngine(SimulationSpecification specification, SimulationOptions options) {
+        this(specification,
+                specification.hasReleaseTimes() ? new SpecificationJobSource(specification) : null,
+                options);
+    }
+
+    /**
+     * An engine that takes jobs from jobSource as the clock reaches
+     * their release times. Only the machines and change-over times of
+     * shop are used.
+     */
+    public SimulationEngine(SimulationSpecification shop, JobSource jobSource, SimulationOptions options) {
+        this.specification = shop;
+        this.jobSource = jobSource;
+        this.options = options;
+        this.listener = options.getListener();
+        this.checkpointFile = options.getCheckpointFile();
+        this.checkpointInterval = options.getCheckpointInterval();
+        this.taskTimeDistributions = options.getTaskTimeDistributions();
+        if (taskTimeDistributions != null) {
+            if (checkpointFile != null)
+                throw new IllegalArgumentException("runs with stochastic task times can't be checkpointed");
+            if (taskTimeDistributions.length <= shop.getNumMachines())
+                throw new IllegalArgumentException("need a task time distribution for each machine");
+            random = new SplittableRandom(options.getSeed());
+        }
+    }
+
+    // methods
+    /**
+     * move theJob to machine for its next task
+     *
+     * @return false iff no next task
+     */
+    boolean moveToNextMachine(Job theJob) {
+        if (!theJob.hasNextTask()) {// no next task
+            theJob.completionTime = timeNow;
+            theJob.totalWaitTime = timeNow - theJob.releaseTime - theJob.getTimeRunning();
+            if (listener != null)
+                listener.jobCompleted(timeNow, theJob.getId(), theJob.releaseTime, theJob.totalWaitTime);
+            return false;
+        } else {// theJob has a next task
+                // get machine for next task
+            int p = theJob.getNextMachine();
+            // put on machine p's wait queue
+            machine[p].getJobQ().put(theJob);
+            theJob.machineArrivalTime = timeNow;
+            if (listener != null)
+                listener.jobArrived(timeNow, p, theJob.getId(), machine[p].getJobQ().size());
+            // if p idle, schedule immediately
+            if (eList.nextEventTime(p) == largeTime) {// machine is idle
+                changeState(p);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * change the state of theMachine
+     *
+     * @return last job run on this machine
+     */
+    Job changeState(int theMachine) {// Task on theMachine has finished,
+                                     // schedule next one.
+        Job lastJob;
+        if (machine[theMachine].getActiveJob() == null) {// in idle or change-over
+                                                    // state
+            lastJob = null;
+            // wait over, ready for new job
+            if (machine[theMachine].getJobQ().isEmpty()) {// no waiting job
+                eList.setFinishTime(theMachine, largeTime);
+                if (listener != null)
+                    listener.machineIdle(timeNow, theMachine);
+            } else {// take job off the queue and work on it
+                machine[theMachine].setActiveJob((Job) machine[theMachine].getJobQ()
+                        .remove());
+                machine[theMachine].setTotalWait(machine[theMachine].getTotalWait() + timeNow
+                        - machine[theMachine].getActiveJob().machineArrivalTime);
+                machine[theMachine].setNumTasks(machine[theMachine].getNumTasks() + 1);
+                int t;
+                if (taskTimeDistributions == null || taskTimeDistributions[theMachine] == null) {
+                    t = machine[theMachine].getActiveJob().removeNextTask();
+                } else {
+                    t = machine[theMachine].getActiveJob().removeNextTask(
+                            taskTimeDistributions[theMachine], random);
+                    if (t >= largeTime - timeNow) // the task would never finish, or time would wrap
+                        throw new IllegalStateException("drawn task times run past the largest simulated time");
+                }
+                eList.setFinishTime(theMachine, timeNow + t);
+                if (listener != null) {
+                    Job activeJob = machine[theMachine].getActiveJob();
+                    listener.taskStarted(timeNow, theMachine, activeJob.getId(),
+                            timeNow - activeJob.machineArrivalTime, t);
+                }
+            }
+        } else {// task has just finished on machine[theMachine]
+                // schedule change-over time
+            lastJob = machine[theMachine].getActiveJob();
+            machine[theMachine].setActiveJob(null);
+            eList.setFinishTime(theMachine, timeNow
+                    + machine[theMachine].getChangeTime());
+            if (listener != null)
+                listener.taskFinished(timeNow, theMachine, lastJob.getId());
+        }
+
+        return lastJob;
+    }
+
+    private void setMachineChangeOverTimes() {
+        for (int i = 1; i<=specification.getNumMachines(); ++i) {
+            machine[i].setChangeTime(specification.getChangeOverTimes(i));
+        }
+    }
+
+    private void setUpJobs() {
+        // input the jobs
+        for (int i = 1; i <= specification.getNumJobs(); i++) {
+            Job theJob = specification.createJob(i);
+            int firstMachine = theJob.getNextMachine();
+            machine[firstMachine].getJobQ().put(theJob);
+            if (listener != null)
+                listener.jobArrived(timeNow, firstMachine, theJob.getId(), machine[firstMachine].getJobQ().size());
+        }
+    }
+
+    /** bring the next job from the job source into the shop */
+    private void releaseNextJob() {
+        Job theJob = jobSource.nextJob();
+        jobsReleased++;
+        numJobs++;
+        if (snapshotLog != null)
+            snapshotLog.jobReleased(theJob.getId());
+        moveToNextMachine(theJob);
+    }
+
+    private void createEventAndMachineQueues() {
+        // create event and machine queues
+        eList = new EventList(specification.getNumMachines(), largeTime);
+        machine = new Machine[specification.getNumMachines() + 1];
+        for (int i = 1; i <= specification.getNumMachines(); i++)
+            machine[i] = new Machine(options.createJobQueue());
+    }
+
+    /** set up the machines and event list of an empty shop */
+    private void createShop() {
+        numMachines = specification.getNumMachines();
+        createEventAndMachineQueues();
+        setMachineChangeOverTimes();
+    }
+
+    /** load first jobs onto each machine */
+    void startShop() {
+        createShop();
+        if (jobSource != null) {
+            // jobs arrive as they are released, all machines start idle
+            numJobs = 0;
+            return;
+        }
+        numJobs = specification.getNumJobs();
+        setUpJobs();
+
+        for (int p = 1; p <= numMachines; p++)
+            changeState(p);
+    }
+
+    /** process all jobs to completion, passing each finished job to sink */
+    void simulate(ResultSink sink) {
+        while (numJobs > 0 || (jobSource != null && jobSource.hasNextJob())) {// at least one job left
+            if (checkpointFile != null && ++eventsSinceCheckpoint == checkpointInterval) {
+                eventsSinceCheckpoint = 0;
+                writeCheckpoint();
+            }
+            if (snapshotLog != null && ++eventsSinceSnapshot == snapshotLog.getInterval()) {
+                eventsSinceSnapshot = 0;
+                snapshotLog.add(takeSnapshot());
+            }
+            int nextToFinish = eList.nextEventMachine();
+            timeNow = eList.nextEventTime(nextToFinish);
+            if (jobSource != null && jobSource.hasNextJob()
+                    && jobSource.peekReleaseTime() <= timeNow) {
+                // jobs released at a time enter before that time's machine events
+                timeNow = jobSource.peekReleaseTime();
+                releaseNextJob();
+                continue;
+            }
+            // change job on machine nextToFinish
+            Job theJob = changeState(nextToFinish);
+            // move theJob to its next machine
+            // decrement numJobs if theJob has finished
+            if (theJob != null && !moveToNextMachine(theJob)) {
+                sink.jobCompleted(theJob.getId(), theJob.completionTime, theJob.totalWaitTime);
+                if (checkpointFile != null)
+                    recordCompletedJob(theJob.getId(), theJob.completionTime, theJob.totalWaitTime);
+                if (snapshotLog != null)
+                    snapshotLog.jobCompleted(theJob.getId(), theJob.completionTime, theJob.totalWaitTime);
+                numJobs--;
+            }
+        }
+    }
+
+    /** keep a completed job's results for the next checkpoint */
+    private void recordCompletedJob(int jobId, int completionTime, int totalWaitTime) {
+        if (completedJobs == null)
+            completedJobs = new int[3 * 64];
+        else if (3 * numCompletedJobs == completedJobs.length)
+            completedJobs = Arrays.copyOf(completedJobs, 2 * completedJobs.length);
+        completedJobs[3 * numCompletedJobs] = jobId;
+        completedJobs[3 * numCompletedJobs + 1] = completionTime;
+        completedJobs[3 * numCompletedJobs + 2] = totalWaitTime;
+        numCompletedJobs++;
+    }
+
+    private void writeCheckpoint() {
+        try {
+            SimulationCheckpoint.write(checkpointFile, this, fingerprint());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long fingerprint() {
+        if (fingerprint == 0)
+            fingerprint = SimulationCheckpoint.fingerprint(specification, options.getDispatchPolicy());
+        return fingerprint;
+    }
+
+    /**
+     * Write everything needed to carry on from the current time: the
+     * clock, each machine's finish time, counters, active job and
+     * queue, each waiting or active job's remaining tasks, and the
+     * results of the jobs already completed.
+     */
+    void saveState(DataOutput out) throws IOException {
+        out.writeInt(timeNow);
+        out.writeInt(numJobs);
+        out.writeInt(jobsReleased);
+        for (int p = 1; p <= numMachines; p++) {
+            out.writeInt(eList.nextEventTime(p));
+            out.writeInt(machine[p].getTotalWait());
+            out.writeInt(machine[p].getNumTasks());
+            Job activeJob = machine[p].getActiveJob();
+            out.writeBoolean(activeJob != null);
+            if (activeJob != null)
+                saveJob(out, activeJob);
+            Queue jobQ = machine[p].getJobQ();
+            int queueLength = jobQ.size();
+            out.writeInt(queueLength);
+            // empty the queue before refilling it, so that a priority
+            // queue keeps the order of jobs it can't tell apart
+            Job[] waiting = new Job[queueLength];
+            for (int i = 0; i < queueLength; i++) {
+                waiting[i] = (Job) jobQ.remove();
+                saveJob(out, waiting[i]);
+            }
+            for (Job theJob : waiting)
+                jobQ.put(theJob);
+        }
+        out.writeInt(numCompletedJobs);
+        for (int i = 0; i < 3 * numCompletedJobs; i++)
+            out.writeInt(completedJobs[i]);
+    }
+
+    private static void saveJob(DataOutput out, Job theJob) throws IOException {
+        out.writeInt(theJob.getId());
+        out.writeInt(theJob.releaseTime);
+        out.writeInt(theJob.dueDate);
+        out.writeInt(theJob.machineArrivalTime);
+        out.writeInt(theJob.getTimeRunning());
+        int numTasks = theJob.getNumTasks();
+        out.writeInt(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            out.writeInt(theJob.getTaskMachine(i));
+            out.writeInt(theJob.getTaskTime(i));
+        }
+    }
+
+    /**
+     * Read back the state written by saveState into a shop with no
+     * jobs, replaying the results of completed jobs to sink.
+     */
+    void restoreState(DataInput in, ResultSink sink) throws IOException {
+        timeNow = in.readInt();
+        numJobs = in.readInt();
+        int released = in.readInt();
+        for (int i = 0; i < released; i++)
+            jobSource.nextJob();
+        jobsReleased = released;
+        for (int p = 1; p <= numMachines; p++) {
+            eList.setFinishTime(p, in.readInt());
+            machine[p].setTotalWait(in.readInt());
+            machine[p].setNumTasks(in.readInt());
+            if (in.readBoolean())
+                machine[p].setActiveJob(restoreJob(in));
+            int queueLength = in.readInt();
+            for (int i = 0; i < queueLength; i++)
+                machine[p].getJobQ().put(restoreJob(in));
+        }
+        int completed = in.readInt();
+        for (int i = 0; i < completed; i++) {
+            int jobId = in.readInt();
+            int completionTime = in.readInt();
+            int totalWaitTime = in.readInt();
+            sink.jobCompleted(jobId, completionTime, totalWaitTime);
+            if (checkpointFile != null)
+                recordCompletedJob(jobId, completionTime, totalWaitTime);
+        }
+    }
+
+    private Job restoreJob(DataInput in) throws IOException {
+        Job theJob = new Job(in.readInt());
+        theJob.releaseTime = in.readInt();
+        theJob.dueDate = in.readInt();
+        theJob.machineArrivalTime = in.readInt();
+        theJob.setTimeRunning(in.readInt());
+        int numTasks = in.readInt();
+        int[] taskMachines = new int[numTasks];
+        int[] taskTimes = new int[numTasks];
+        for (int i = 0; i < numTasks; i++) {
+            taskMachines[i] = in.readInt();
+            taskTimes[i] = in.readInt();
+        }
+        theJob.setTasks(taskMachines, taskTimes, 0, numTasks);
+        return theJob;
+    }
+
+    /**
+     * @return the current state, each job in the shop recorded by its
+     * id and the number of its tasks it has started
+     */
+    private SnapshotLog.Snapshot takeSnapshot() {
+        int numJobsInShop = 0;
+        for (int p = 1; p <= numMachines; p++)
+            numJobsInShop += machine[p].getJobQ().size() + (machine[p].getActiveJob() == null ? 0 : 1);
+        SnapshotLog.Snapshot snapshot = new SnapshotLog.Snapshot(numMachines, numJobsInShop);
+        snapshot.timeNow = timeNow;
+        snapshot.numJobs = numJobs;
+        snapshot.jobsReleased = jobsReleased;
+        snapshot.numCompletedJobs = snapshotLog.getNumCompletedJobs();
+        int j = 0;
+        for (int p = 1; p <= numMachines; p++) {
+            snapshot.finishTimes[p] = eList.nextEventTime(p);
+            snapshot.totalWaits[p] = machine[p].getTotalWait();
+            snapshot.numTasks[p] = machine[p].getNumTasks();
+            snapshot.firstJob[p] = j / 4;
+            Job activeJob = machine[p].getActiveJob();
+            snapshot.busy[p] = activeJob != null;
+            if (activeJob != null)
+                j = snapshotJob(snapshot.jobs, j, activeJob);
+            // empty the queue before refilling it, as saveState does
+            Queue jobQ = machine[p].getJobQ();
+            Job[] waiting = new Job[jobQ.size()];
+            for (int i = 0; i < waiting.length; i++) {
+                waiting[i] = (Job) jobQ.remove();
+                j = snapshotJob(snapshot.jobs, j, waiting[i]);
+            }
+            for (Job theJob : waiting)
+                jobQ.put(theJob);
+        }
+        snapshot.firstJob[numMachines + 1] = j / 4;
+        return snapshot;
+    }
+
+    private int snapshotJob(int[] jobs, int j, Job theJob) {
+        jobs[j] = theJob.getId();
+        jobs[j + 1] = specification.getNumTasks(theJob.getId()) - theJob.getNumTasks();
+        jobs[j + 2] = theJob.machineArrivalTime;
+        jobs[j + 3] = theJob.getTimeRunning();
+        return j + 4;
+    }
+
+    /**
+     * Put the shop into the state in snapshot, taken in a run of a
+     * specification that differs from this one only in ways that
+     * couldn't yet have shown, rebuilding the jobs from this
+     * specification. sink gets the results of the jobs completed before
+     * the snapshot.
+     */
+    private void restoreSnapshot(SnapshotLog.Snapshot snapshot, ResultSink sink) {
+        timeNow = snapshot.timeNow;
+        numJobs = snapshot.numJobs;
+        for (int i = 0; i < snapshot.jobsReleased; i++)
+            jobSource.nextJob();
+        jobsReleased = snapshot.jobsReleased;
+        int[] jobs = snapshot.jobs;
+        for (int p = 1; p <= numMachines; p++) {
+            eList.setFinishTime(p, snapshot.finishTimes[p]);
+            machine[p].setTotalWait(snapshot.totalWaits[p]);
+            machine[p].setNumTasks(snapshot.numTasks[p]);
+            for (int j = 4 * snapshot.firstJob[p]; j < 4 * snapshot.firstJob[p + 1]; j += 4) {
+                Job theJob = specification.createJob(jobs[j], jobs[j + 1]);
+                theJob.machineArrivalTime = jobs[j + 2];
+                theJob.setTimeRunning(jobs[j + 3]);
+                if (snapshot.busy[p] && j == 4 * snapshot.firstJob[p])
+                    machine[p].setActiveJob(theJob);
+                else
+                    machine[p].getJobQ().put(theJob);
+            }
+        }
+        snapshotLog.replayCompletedJobs(sink);
+    }
+
+    /** output wait times at machines */
+    void outputStatistics(ResultSink sink) {
+        int[] numTasksPerMachine = new int[numMachines+1];
+        int[] totalWaitTimePerMachine = new int[numMachines+1];
+        for (int i=1; i<=numMachines; ++i) {
+            numTasksPerMachine[i] = machine[i].getNumTasks();
+            totalWaitTimePerMachine[i] = machine[i].getTotalWait();
+        }
+        sink.simulationCompleted(timeNow, numTasksPerMachine, totalWaitTimePerMachine);
+    }
+
+    /** take a snapshot into log every log.getInterval() events */
+    void setSnapshotLog(SnapshotLog log) {
+        this.snapshotLog = log;
+    }
+
+    /** draw stochastic task times from random instead of a stream seeded from the options */
+    void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /** run the specification through the shop, collecting the results */
+    public SimulationResults run() {
+        SimulationResults simulationResults = new SimulationResults(specification.getNumJobs());
+        run(simulationResults);
+        return simulationResults;
+    }
+
+    /** run the specification through the shop, streaming the results to sink */
+    public void run(ResultSink sink) {
+        timeNow = 0;
+        if (listener != null)
+            listener.simulationStarted(specification.getNumMachines());
+        startShop(); // initial machine loading
+        simulate(sink); // run all jobs through shop
+        if (listener != null)
+            listener.simulationFinished(timeNow);
+        outputStatistics(sink);
+    }
+
+    /**
+     * Carry on the run saved in checkpointFile, streaming the results to
+     * sink, starting with the jobs that completed before the checkpoint.
+     */
+    public void resume(Path checkpointFile, ResultSink sink) throws IOException {
+        createShop();
+        SimulationCheckpoint.read(checkpointFile, this, fingerprint(), sink);
+        if (listener != null) {
+            listener.simulationStarted(numMachines);
+            int[] queueLengths = new int[numMachines + 1];
+            for (int p = 1; p <= numMachines; p++)
+                queueLengths[p] = machine[p].getJobQ().size();
+            listener.simulationResumed(timeNow, queueLengths);
+        }
+        simulate(sink);
+        if (listener != null)
+            listener.simulationFinished(timeNow);
+        outputStatistics(sink);
+    }
+
+    /**
+     * Carry on from snapshot, one of those in the engine's snapshot log,
+     * streaming the results to sink, starting with the jobs that
+     * completed before the snapshot.
+     */
+    void resume(SnapshotLog.Snapshot snapshot, ResultSink sink) {
+        createShop();
+        restoreSnapshot(snapshot, sink);
+        simulate(sink);
+        outputStatistics(sink);
+    }
+}
@@ -0,0 +1,127 @@
+package applications;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs large numbers of small simulations, each on a thread of its
+ * own, for services that submit many specifications at once. On Java 21
+ * and later the threads are virtual, so a simulation costs a small
+ * object instead of a platform thread and a queue slot; before that
+ * they come from a fixed pool with a thread per core.
+ *
+ * Submitting blocks while maxInFlight simulations are running, or
+ * while the running ones hold maxSizeInFlight tasks and jobs between
+ * them, so a fast producer can't fill memory with waiting
+ * specifications. A specification bigger than maxSizeInFlight runs on
+ * its own.
+ *
+ * Simulations share nothing but their read-only specifications, so
+ * the only limit on how many run at once is the semaphores.
+ */
+public class SimulationExecutor implements Closeable {
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore inFlight;
+    private final Semaphore sizeInFlight;
+    private final int maxSizeInFlight;
+
+    /**
+     * @param maxInFlight     the most simulations submitted but not finished
+     * @param maxSizeInFlight the most tasks and jobs, summed over the
+     *                        specifications of those simulations
+     */
+    public SimulationExecutor(int maxInFlight, int maxSizeInFlight) {
+        if (maxInFlight < 1 || maxSizeInFlight < 1)
+            throw new IllegalArgumentException("limits must be >= 1");
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        executor = virtualThreads ? virtual
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "simulation executor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        inFlight = new Semaphore(maxInFlight);
+        sizeInFlight = new Semaphore(maxSizeInFlight);
+        this.maxSizeInFlight = maxSizeInFlight;
+    }
+
+    /** @return an executor starting a virtual thread per task, null before Java 21 */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /** @return true iff simulations run on virtual threads */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public CompletableFuture<SimulationResults> submit(SimulationSpecification specification)
+            throws InterruptedException {
+        return submit(specification, new SimulationOptions());
+    }
+
+    /**
+     * Start simulating specification with options, once there is room.
+     * options may be shared with other submissions if it has no
+     * listener or checkpoint file.
+     *
+     * @return the results, or the exception the simulation threw
+     */
+    public CompletableFuture<SimulationResults> submit(SimulationSpecification specification,
+                                                       SimulationOptions options)
+            throws InterruptedException {
+        int size = (int) Math.min(maxSizeInFlight,
+                (long) specification.getTotalTasks() + specification.getNumJobs());
+        inFlight.acquire();
+        try {
+            sizeInFlight.acquire(size);
+        } catch (InterruptedException e) {
+            inFlight.release();
+            throw e;
+        }
+        CompletableFuture<SimulationResults> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(MachineShopSimulator.runSimulation(specification, options));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    sizeInFlight.release(size);
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            sizeInFlight.release(size);
+            inFlight.release();
+            throw e;
+        }
+        return result;
+    }
+
+    /** wait for the simulations already submitted, then stop */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES))
+                ;
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
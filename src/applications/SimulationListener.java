@@ -0,0 +1,58 @@
+package applications;
+
+/**
+ * Told about each step of a running simulation. The engine calls these
+ * methods on its own thread, in time order, from inside the event loop,
+ * so they must be quick. Every method does nothing by default.
+ *
+ * Each event handled by a machine is reported as exactly one of
+ * taskStarted, taskFinished (the machine starts changing over) or
+ * machineIdle.
+ */
+public interface SimulationListener {
+
+    /** the simulation is about to start with the given number of machines */
+    default void simulationStarted(int numMachines) {
+    }
+
+    /**
+     * the simulation is carrying on from a checkpoint taken at time,
+     * when queueLengths[p] jobs were waiting at machine p; follows
+     * simulationStarted, and nothing before time is reported
+     */
+    default void simulationResumed(int time, int[] queueLengths) {
+    }
+
+    /**
+     * theJob has joined theMachine's wait queue, which now holds
+     * queueLength jobs including theJob
+     */
+    default void jobArrived(int time, int theMachine, int theJob, int queueLength) {
+    }
+
+    /**
+     * theMachine has started a task of theJob that will take taskTime,
+     * after theJob waited waitTime in its queue
+     */
+    default void taskStarted(int time, int theMachine, int theJob, int waitTime, int taskTime) {
+    }
+
+    /** theJob's task on theMachine has finished and the change-over begins */
+    default void taskFinished(int time, int theMachine, int theJob) {
+    }
+
+    /** theMachine has finished changing over and has no job waiting */
+    default void machineIdle(int time, int theMachine) {
+    }
+
+    /**
+     * theJob, which entered the shop at releaseTime, has finished its
+     * last task
+     */
+    default void jobCompleted(int time, int theJob, int releaseTime, int totalWaitTime) {
+    }
+
+    /** the last job has completed at finishTime */
+    default void simulationFinished(int finishTime) {
+    }
+}
@@ -0,0 +1,167 @@
+package applications;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+
+import dataStructures.ArrayQueue;
+import dataStructures.LinkedQueue;
+import dataStructures.MinHeapQueue;
+import dataStructures.Queue;
+
+/**
+ * Settings that change how a {@link SimulationEngine} runs a
+ * specification without changing its results, except for the
+ * dispatch policy.
+ */
+public class SimulationOptions {
+
+    /** the queue implementation used for machine queues */
+    public enum QueueKind {
+        /** a linked chain of nodes, one allocation per put */
+        LINKED,
+        /** a growable circular array, no allocation once it's big enough */
+        ARRAY
+    }
+
+    /** how the engine lays out jobs, tasks and machines in memory */
+    public enum EngineKind {
+        /** Job and Machine objects, see {@link SimulationEngine} */
+        OBJECT_GRAPH,
+        /**
+         * parallel int arrays, see {@link FlatSimulationEngine};
+         * specifications with job release times, and runs with a
+         * listener, checkpoints, stochastic task times or a dispatch
+         * policy other than FIFO, still run on the object graph engine
+         */
+        FLAT,
+        /**
+         * machines split between threads, see
+         * {@link ParallelSimulationEngine}; falls back to the object
+         * graph engine in the same cases as FLAT
+         */
+        PARALLEL
+    }
+
+    private QueueKind queueKind = QueueKind.LINKED;
+    private EngineKind engineKind = EngineKind.OBJECT_GRAPH;
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+    private DispatchPolicy dispatchPolicy = DispatchPolicy.FIFO;
+    private SimulationListener listener; // null for none
+    private Path checkpointFile; // null for no checkpoints
+    private long checkpointInterval;
+    private TaskTimeDistribution[] taskTimeDistributions; // by machine, null for the specified times
+    private long seed;
+
+    public QueueKind getQueueKind() {
+        return queueKind;
+    }
+
+    public void setQueueKind(QueueKind queueKind) {
+        this.queueKind = queueKind;
+    }
+
+    public EngineKind getEngineKind() {
+        return engineKind;
+    }
+
+    public void setEngineKind(EngineKind engineKind) {
+        this.engineKind = engineKind;
+    }
+
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /** set the number of threads the PARALLEL engine uses; one per core by default */
+    public void setNumThreads(int numThreads) {
+        if (numThreads < 1)
+            throw new IllegalArgumentException("number of threads must be >= 1");
+        this.numThreads = numThreads;
+    }
+
+    public DispatchPolicy getDispatchPolicy() {
+        return dispatchPolicy;
+    }
+
+    /**
+     * Set the rule machines use to choose their next job. Policies
+     * other than FIFO always run on the object graph engine.
+     */
+    public void setDispatchPolicy(DispatchPolicy dispatchPolicy) {
+        this.dispatchPolicy = dispatchPolicy;
+    }
+
+    public SimulationListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Set a listener to be told about every step of the simulation, or
+     * null for none. A run without a listener doesn't pay for the hook.
+     * The listener is shared by every run with these options.
+     */
+    public void setListener(SimulationListener listener) {
+        this.listener = listener;
+    }
+
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Save the engine's state to checkpointFile after every interval
+     * events, so that a run that dies can be carried on with
+     * {@link MachineShopSimulator#resumeSimulation}. Each checkpoint
+     * replaces the last one. A null file turns checkpoints off.
+     */
+    public void setCheckpoint(Path checkpointFile, long interval) {
+        if (checkpointFile != null && interval < 1)
+            throw new IllegalArgumentException("checkpoint interval must be >= 1");
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = interval;
+    }
+
+    public TaskTimeDistribution[] getTaskTimeDistributions() {
+        return taskTimeDistributions;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Draw each task's time, as the task starts, from the distribution
+     * of its machine instead of taking the time in the specification;
+     * machines whose distribution is null keep the specified times.
+     * Each run draws from a SplittableRandom seeded with seed, so runs
+     * with the same seed give the same results; see
+     * {@link MachineShopSimulator#runReplications} for independent
+     * runs. Stochastic runs always run on the object graph engine and
+     * can't be checkpointed. A null array turns this off.
+     *
+     * @param byMachine indexed by machine, element 0 is unused
+     */
+    public void setTaskTimeDistributions(TaskTimeDistribution[] byMachine, long seed) {
+        this.taskTimeDistributions = byMachine;
+        this.seed = seed;
+    }
+
+    /** @return a new, empty queue of the configured kind */
+    Queue createQueue() {
+        if (queueKind == QueueKind.ARRAY)
+            return new ArrayQueue();
+        return new LinkedQueue();
+    }
+
+    /** @return a new, empty machine queue ordered by the dispatch policy */
+    Queue createJobQueue() {
+        if (dispatchPolicy.getOrder() == null)
+            return createQueue();
+        Comparator<Job> order = dispatchPolicy.getOrder();
+        return new MinHeapQueue((a, b) -> order.compare((Job) a, (Job) b));
+    }
+}
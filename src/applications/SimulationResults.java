@@ -2,32 +2,57 @@ package applications;
 
 import java.util.Arrays;
 
-public class SimulationResults {
+/**
+ * Collects all of a simulation's results in memory. Completed jobs are
+ * kept as (id, completion time, wait) triples rather than as Job
+ * objects, so none of the jobs' runtime state is held on to.
+ */
+public class SimulationResults implements ResultSink {
     private int finishTime;
     private int numMachines;
     private int[] numTasksPerMachine;
     private int[] totalWaitTimePerMachine;
-    private Job[] jobs;
+    private int[] jobIds;
+    private int[] completionTimes;
+    private int[] totalWaitTimes;
     private int nextJob = 0;
 
     public SimulationResults(int numJobs) {
-        jobs = new Job[numJobs];
+        jobIds = new int[numJobs];
+        completionTimes = new int[numJobs];
+        totalWaitTimes = new int[numJobs];
     }
 
+    /** write the results to System.out */
     public void print() {
-        for (Job job : jobs) {
-            System.out.println("Job " + job.getId() + " has completed at "
-                    + job.completionTime + " Total wait was " + job.totalWaitTime);
+        TextResultSink sink = new TextResultSink(System.out);
+        for (int i = 0; i < nextJob; i++) {
+            sink.jobCompleted(jobIds[i], completionTimes[i], totalWaitTimes[i]);
         }
+        sink.simulationCompleted(finishTime, numTasksPerMachine, totalWaitTimePerMachine);
+    }
 
-        System.out.println("Finish time = " + finishTime);
-        for (int p = 1; p <= numMachines; p++) {
-            System.out.println("Machine " + p + " completed "
-                    + numTasksPerMachine[p] + " tasks");
-            System.out.println("The total wait time was "
-                    + totalWaitTimePerMachine[p]);
-            System.out.println();
+    @Override
+    public void jobCompleted(int jobId, int completionTime, int totalWaitTime) {
+        if (nextJob == jobIds.length) {
+            int newLength = Math.max(8, 2 * nextJob);
+            jobIds = Arrays.copyOf(jobIds, newLength);
+            completionTimes = Arrays.copyOf(completionTimes, newLength);
+            totalWaitTimes = Arrays.copyOf(totalWaitTimes, newLength);
         }
+        jobIds[nextJob] = jobId;
+        completionTimes[nextJob] = completionTime;
+        totalWaitTimes[nextJob] = totalWaitTime;
+        nextJob++;
+    }
+
+    @Override
+    public void simulationCompleted(int finishTime, int[] numTasksPerMachine,
+                                    int[] totalWaitTimePerMachine) {
+        setFinishTime(finishTime);
+        setNumMachines(numTasksPerMachine.length - 1);
+        setNumTasksPerMachine(numTasksPerMachine);
+        setTotalWaitTimePerMachine(totalWaitTimePerMachine);
     }
 
     public int getFinishTime() {
@@ -38,6 +63,10 @@ public class SimulationResults {
         this.finishTime = finishTime;
     }
 
+    public int getNumMachines() {
+        return numMachines;
+    }
+
     public void setNumMachines(int numMachines) {
         this.numMachines = numMachines;
     }
@@ -58,18 +87,21 @@ public class SimulationResults {
         this.totalWaitTimePerMachine = totalWaitTimePerMachine;
     }
 
-    public void addJobToResults(Job job){
-        jobs[nextJob] = job;
-        nextJob++;
+    public int getNumCompletedJobs() {
+        return nextJob;
     }
 
+    /**
+     * @return a Job holding the id, completion time and total wait of
+     * each completed job, in completion order
+     */
     public Job[] getJobs() {
+        Job[] jobs = new Job[nextJob];
+        for (int i = 0; i < nextJob; i++) {
+            jobs[i] = new Job(jobIds[i]);
+            jobs[i].completionTime = completionTimes[i];
+            jobs[i].totalWaitTime = totalWaitTimes[i];
+        }
         return jobs;
     }
-//
-//    public void setJobCompletionData(int jobID, int completionTime, int totalWaitTime) {
-//        Job jobCompletionData = new Job(jobID, completionTime, totalWaitTime);
-//        jobs[nextJob] = jobCompletionData;
-//        nextJob++;
-//    }
 }
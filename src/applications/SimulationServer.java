@@ -0,0 +1,297 @@
+package applications;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import exceptions.MyInputException;
+import utilities.IntegerScanner;
+
+/**
+ * Runs simulations for clients on the loopback interface, so that many
+ * small specifications share one JVM that is already started and
+ * warmed up instead of paying for a new process each.
+ *
+ * A client sends any number of requests over one connection and shuts
+ * down its output when it has no more. All integers are big-endian.
+ * A request is an int length followed by that many bytes of
+ * specification, in the text format read by MachineShopSimulator.main
+ * or in the format of {@link BinarySpecification}. Requests run on a
+ * shared pool of worker threads, and each gets a response as soon as
+ * its simulation is done, so responses may come back out of order.
+ * Workers never write to a connection themselves; each connection has
+ * a thread of its own that does, so a client that is slow to read holds
+ * up only its own requests. A response is:
+ *
+ * <pre>
+ * int  request number, counting from 0 on each connection
+ * int  status, OK, INPUT_ERROR or FAILED
+ * long latency in nanoseconds, from reading the request to finishing its run
+ * int  length, then that many bytes of UTF-8 text: what
+ *      MachineShopSimulator.main would print, or the error message
+ * </pre>
+ *
+ * The server closes the connection once it has answered every request
+ * sent before the client shut down its output. A request longer than
+ * the server's maximum request size drops the connection, after the
+ * requests before it are answered, rather than letting one bad length
+ * run the server out of memory.
+ */
+public class SimulationServer implements Closeable {
+    public static final int OK = 0;
+    public static final int INPUT_ERROR = 1; // the specification was rejected
+    public static final int FAILED = 2; // the simulation threw something else
+    public static final int DEFAULT_MAX_REQUEST_SIZE = 1 << 28; // bytes
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Response NO_MORE_RESPONSES = new Response(-1, OK, 0, new ByteArrayOutputStream());
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService workers;
+    private final int maxRequestsInFlight; // per connection, read but not yet answered
+    private final int maxRequestSize;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final SimulationOptions options;
+    private volatile boolean closed;
+
+    /**
+     * Listen on port of the loopback interface, or on a free port if
+     * port is 0, running simulations on numThreads threads and taking
+     * requests of up to DEFAULT_MAX_REQUEST_SIZE bytes.
+     */
+    public SimulationServer(int port, int numThreads) throws IOException {
+        this(port, numThreads, DEFAULT_MAX_REQUEST_SIZE);
+    }
+
+    /** as SimulationServer(port, numThreads), taking requests of up to maxRequestSize bytes */
+    public SimulationServer(int port, int numThreads, int maxRequestSize) throws IOException {
+        this(port, numThreads, maxRequestSize, new SimulationOptions());
+    }
+
+    /** @param options the options every simulation runs with */
+    SimulationServer(int port, int numThreads, int maxRequestSize, SimulationOptions options) throws IOException {
+        if (numThreads < 1)
+            throw new IllegalArgumentException("number of threads must be >= 1");
+        if (maxRequestSize < 1)
+            throw new IllegalArgumentException("maximum request size must be >= 1");
+        this.maxRequestSize = maxRequestSize;
+        this.options = options;
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        workers = Executors.newFixedThreadPool(numThreads, runnable -> {
+            Thread thread = new Thread(runnable, "simulation worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maxRequestsInFlight = 2 * numThreads;
+    }
+
+    /** @return the port the server is listening on */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** start accepting connections on a background thread */
+    public void start() {
+        Thread acceptor = new Thread(this::acceptConnections, "simulation server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** stop accepting connections and drop the open ones */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        workers.shutdownNow();
+        for (Socket socket : connections)
+            socket.close();
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!closed)
+                    System.err.println("simulation server: " + e.getMessage());
+                return;
+            }
+            connections.add(socket);
+            Thread reader = new Thread(() -> serve(socket), "simulation connection " + socket.getPort());
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * read and dispatch the requests on one connection until the client
+     * is done, handing the workers' responses to a writer thread
+     */
+    private void serve(Socket socket) {
+        Semaphore inFlight = new Semaphore(maxRequestsInFlight);
+        BlockingQueue<Response> responses = new LinkedBlockingQueue<>();
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+            Thread writer = new Thread(() -> writeResponses(socket, out, responses, inFlight),
+                    "simulation responses " + socket.getPort());
+            writer.setDaemon(true);
+            writer.start();
+            for (int requestNumber = 0; ; requestNumber++) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break; // the client has sent its last request
+                }
+                if (length < 0 || length > maxRequestSize)
+                    break; // not a request we will take, drop the connection
+                byte[] request = new byte[length];
+                in.readFully(request);
+                long received = System.nanoTime();
+                inFlight.acquire();
+                int theRequestNumber = requestNumber;
+                workers.execute(() -> responses.add(respond(theRequestNumber, request, received)));
+            }
+            inFlight.acquire(maxRequestsInFlight); // wait for the last responses to be written
+        } catch (IOException | InterruptedException | RejectedExecutionException e) {
+            // the client went away or the server is closing
+        } finally {
+            responses.add(NO_MORE_RESPONSES);
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * write responses to out as the workers finish them, releasing a
+     * request's place in flight once its response is written, until
+     * the reader has no more coming; if the client has gone away the
+     * responses are dropped, still releasing their places
+     */
+    private static void writeResponses(Socket socket, DataOutputStream out,
+                                       BlockingQueue<Response> responses, Semaphore inFlight) {
+        boolean connected = true;
+        while (true) {
+            Response response;
+            try {
+                response = responses.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (response == NO_MORE_RESPONSES)
+                return;
+            if (connected) {
+                try {
+                    response.writeTo(out);
+                    out.flush();
+                } catch (IOException e) {
+                    connected = false;
+                    closeQuietly(socket); // so the reader stops too
+                }
+            }
+            inFlight.release();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing more to do with it
+        }
+    }
+
+    private Response respond(int requestNumber, byte[] request, long received) {
+        int status = OK;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            runSimulation(request, output);
+        } catch (MyInputException | NumberFormatException e) {
+            status = INPUT_ERROR;
+            output.reset();
+            writeMessage(output, e);
+        } catch (Throwable e) {// whatever went wrong, the client still gets an answer
+            status = FAILED;
+            output.reset();
+            writeMessage(output, e);
+        }
+        return new Response(requestNumber, status, System.nanoTime() - received, output);
+    }
+
+    /** run the specification in request, writing its results to output */
+    private void runSimulation(byte[] request, ByteArrayOutputStream output) {
+        ByteBuffer buffer = ByteBuffer.wrap(request);
+        SimulationSpecification specification;
+        if (request.length >= 4 && buffer.getInt(0) == BinarySpecification.MAGIC) {
+            specification = BinarySpecification.read(buffer);
+        } else {
+            SpecificationReader reader = new SpecificationReader(new IntegerScanner(buffer));
+            reader.setPrompting(false);
+            specification = reader.readSpecification();
+        }
+        MachineShopSimulator.runSimulation(specification, options, new TextResultSink(output));
+    }
+
+    private static void writeMessage(ByteArrayOutputStream output, Throwable e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.toString();
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    /** a finished request, waiting for its connection's writer */
+    private static class Response {
+        private final int requestNumber;
+        private final int status;
+        private final long latencyNanos;
+        private final ByteArrayOutputStream output;
+
+        Response(int requestNumber, int status, long latencyNanos, ByteArrayOutputStream output) {
+            this.requestNumber = requestNumber;
+            this.status = status;
+            this.latencyNanos = latencyNanos;
+            this.output = output;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(requestNumber);
+            out.writeInt(status);
+            out.writeLong(latencyNanos);
+            out.writeInt(output.size());
+            output.writeTo(out);
+        }
+    }
+
+    /**
+     * Run a server until the process is killed.
+     * Usage: SimulationServer [port [threads]]; the port defaults to
+     * 0, any free port, and the threads to one per core.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int numThreads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        SimulationServer server = new SimulationServer(port, numThreads);
+        System.out.println("listening on port " + server.getPort());
+        server.acceptConnections();
+    }
+}
@@ -2,11 +2,22 @@ package applications;
 
 import java.util.Arrays;
 
+/**
+ * The machines and jobs of a simulation. The tasks of all the jobs are
+ * packed into two arrays, one of machines and one of times, in job
+ * order; job i's tasks are those from getFirstTask(i) up to
+ * getFirstTask(i + 1). Engines walk these arrays in place instead of
+ * copying them, so once set they must not be changed.
+ */
 public class SimulationSpecification {
     private int numMachines;
     private int numJobs;
     private int[] changeOverTimes;
-    public Job[] jobs;
+    private int[] firstTask; // by job, with firstTask[numJobs + 1] the total number of tasks
+    private int[] taskMachines;
+    private int[] taskTimes;
+    private int[] releaseTimes; // by job
+    private int[] dueDates; // by job
 
     public void setNumMachines(int numMachines) {
         this.numMachines = numMachines;
@@ -32,8 +43,157 @@ public class SimulationSpecification {
         return changeOverTimes[machineNumber];
     }
 
-    public void setSpecificationsForTasks(int jobNumber, int[] specificationsForTasks) {
-        jobs[jobNumber].setSpecificationsForTasks(specificationsForTasks);
+    /**
+     * Set the tasks of every job, with no release times or due dates.
+     * The arrays are kept, not copied.
+     *
+     * @param firstTask    numJobs + 2 elements; element i is the index
+     *                     of job i's first task, element numJobs + 1
+     *                     the total number of tasks, element 0 unused
+     * @param taskMachines the machine of each task
+     * @param taskTimes    the time of each task
+     */
+    public void setTasks(int[] firstTask, int[] taskMachines, int[] taskTimes) {
+        this.firstTask = firstTask;
+        this.taskMachines = taskMachines;
+        this.taskTimes = taskTimes;
+        releaseTimes = new int[numJobs + 1];
+        dueDates = new int[numJobs + 1];
+    }
+
+    /**
+     * Pack the tasks, release times and due dates of jobs 1 to numJobs,
+     * each given as by Job.setSpecificationsForTasks.
+     */
+    public void setJobs(Job[] jobs) {
+        int[] first = new int[numJobs + 2];
+        for (int i = 1; i <= numJobs; i++)
+            first[i + 1] = first[i] + jobs[i].getNumTasks();
+        int[] machines = new int[first[numJobs + 1]];
+        int[] times = new int[first[numJobs + 1]];
+        for (int i = 1; i <= numJobs; i++) {
+            for (int j = 0; j < jobs[i].getNumTasks(); j++) {
+                machines[first[i] + j] = jobs[i].getTaskMachine(j);
+                times[first[i] + j] = jobs[i].getTaskTime(j);
+            }
+        }
+        setTasks(first, machines, times);
+        for (int i = 1; i <= numJobs; i++) {
+            releaseTimes[i] = jobs[i].releaseTime;
+            dueDates[i] = jobs[i].dueDate;
+        }
+    }
+
+    /** @return true iff the jobs have been set, not left to be streamed */
+    boolean hasJobs() {
+        return firstTask != null;
+    }
+
+    /**
+     * use base's jobs and tasks, sharing rather than copying them, and
+     * copies of its release times and due dates, which can still be set
+     * on either specification without changing the other
+     */
+    void shareJobs(SimulationSpecification base) {
+        firstTask = base.firstTask;
+        taskMachines = base.taskMachines;
+        taskTimes = base.taskTimes;
+        releaseTimes = base.releaseTimes.clone();
+        dueDates = base.dueDates.clone();
+    }
+
+    /** @return the index of job jobNumber's first task; numJobs + 1 gives the total number of tasks */
+    public int getFirstTask(int jobNumber) {
+        return firstTask[jobNumber];
+    }
+
+    public int getNumTasks(int jobNumber) {
+        return firstTask[jobNumber + 1] - firstTask[jobNumber];
+    }
+
+    public int getTotalTasks() {
+        return firstTask[numJobs + 1];
+    }
+
+    public int getTaskMachine(int task) {
+        return taskMachines[task];
+    }
+
+    public int getTaskTime(int task) {
+        return taskTimes[task];
+    }
+
+    /** @return job jobNumber's tasks as machine, time pairs in elements 1 to 2 * getNumTasks */
+    public int[] getSpecificationsForTasks(int jobNumber) {
+        int[] specificationsForTasks = new int[2 * getNumTasks(jobNumber) + 1];
+        for (int k = firstTask[jobNumber], j = 1; k < firstTask[jobNumber + 1]; k++, j += 2) {
+            specificationsForTasks[j] = taskMachines[k];
+            specificationsForTasks[j + 1] = taskTimes[k];
+        }
+        return specificationsForTasks;
+    }
+
+    // the packed arrays themselves, for engines that walk them in place
+    int[] getFirstTasks() {
+        return firstTask;
+    }
+
+    int[] getTaskMachines() {
+        return taskMachines;
+    }
+
+    int[] getTaskTimes() {
+        return taskTimes;
+    }
+
+    /** @return a job ready to run job jobNumber, reading its tasks from this specification */
+    Job createJob(int jobNumber) {
+        return createJob(jobNumber, 0);
+    }
+
+    /** @return job jobNumber with its first tasksStarted tasks already started */
+    Job createJob(int jobNumber, int tasksStarted) {
+        Job theJob = new Job(jobNumber);
+        theJob.releaseTime = releaseTimes[jobNumber];
+        theJob.dueDate = dueDates[jobNumber];
+        theJob.setTasks(taskMachines, taskTimes, firstTask[jobNumber] + tasksStarted, firstTask[jobNumber + 1]);
+        return theJob;
+    }
+
+    public void setReleaseTime(int jobNumber, int releaseTime) {
+        releaseTimes[jobNumber] = releaseTime;
+    }
+
+    public int getReleaseTime(int jobNumber) {
+        return releaseTimes[jobNumber];
+    }
+
+    /** set the time job jobNumber should be completed by, for the EDD dispatch policy */
+    public void setDueDate(int jobNumber, int dueDate) {
+        dueDates[jobNumber] = dueDate;
+    }
+
+    public int getDueDate(int jobNumber) {
+        return dueDates[jobNumber];
+    }
+
+    /** @return true iff some job is released after time 0 */
+    public boolean hasReleaseTimes() {
+        for (int i=1; i<=numJobs; ++i) {
+            if (releaseTimes[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return true iff some job has a due date */
+    public boolean hasDueDates() {
+        for (int i = 1; i <= numJobs; i++) {
+            if (dueDates[i] != 0)
+                return true;
+        }
+        return false;
     }
 
     @Override
@@ -43,8 +203,15 @@ public class SimulationSpecification {
         builder.append(numJobs).append(" jobs; ");
         builder.append("change overs: ").append(Arrays.toString(changeOverTimes));
         for (int i=1; i<=numJobs; ++i) {
-            builder.append("; job ").append(i).append(" tasks: ");
-            builder.append(Arrays.toString(jobs[i].getSpecificationsForTasks()));
+            builder.append("; job ").append(i);
+            if (releaseTimes[i] > 0) {
+                builder.append(" released at ").append(releaseTimes[i]);
+            }
+            if (dueDates[i] != 0) {
+                builder.append(" due at ").append(dueDates[i]);
+            }
+            builder.append(" tasks: ");
+            builder.append(Arrays.toString(getSpecificationsForTasks(i)));
         }
 
         builder.append(">");
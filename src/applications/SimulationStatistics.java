@@ -0,0 +1,170 @@
+package applications;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Locale;
+
+import utilities.P2Quantile;
+import utilities.RunningStatistics;
+
+/**
+ * A listener that summarizes a run as it goes, in memory proportional
+ * to the number of machines however many jobs there are. For jobs it
+ * keeps the mean, variance and estimated 50th, 95th and 99th
+ * percentiles of the total wait and of the flow time (completion
+ * minus release). For each machine it keeps the time-weighted average
+ * queue length and the utilization, the fraction of the run spent
+ * working on tasks. After a resume the machine statistics cover the
+ * time from the checkpoint on, counting the tasks started since.
+ *
+ * A SimulationStatistics is for one run at a time.
+ */
+public class SimulationStatistics implements SimulationListener {
+    /** the quantiles estimated for job wait and flow times */
+    public static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    // data members
+    private final RunningStatistics waitTime = new RunningStatistics();
+    private final RunningStatistics flowTime = new RunningStatistics();
+    private final P2Quantile[] waitTimeQuantiles = new P2Quantile[QUANTILES.length];
+    private final P2Quantile[] flowTimeQuantiles = new P2Quantile[QUANTILES.length];
+    private int numMachines;
+    private int startTime; // 0, or the time a resumed run carried on from
+    private int finishTime;
+    private int[] queueLength; // jobs now waiting at each machine
+    private int[] lastQueueChange; // time each machine's queue length last changed
+    private long[] queueLengthArea; // integral of queue length over time
+    private long[] busyTime; // total task time run on each machine
+
+    public SimulationStatistics() {
+        for (int i = 0; i < QUANTILES.length; i++) {
+            waitTimeQuantiles[i] = new P2Quantile(QUANTILES[i]);
+            flowTimeQuantiles[i] = new P2Quantile(QUANTILES[i]);
+        }
+    }
+
+    @Override
+    public void simulationStarted(int numMachines) {
+        this.numMachines = numMachines;
+        startTime = 0;
+        queueLength = new int[numMachines + 1];
+        lastQueueChange = new int[numMachines + 1];
+        queueLengthArea = new long[numMachines + 1];
+        busyTime = new long[numMachines + 1];
+    }
+
+    @Override
+    public void simulationResumed(int time, int[] queueLengths) {
+        startTime = time;
+        for (int p = 1; p <= numMachines; p++) {
+            queueLength[p] = queueLengths[p];
+            lastQueueChange[p] = time;
+        }
+    }
+
+    /** account for theMachine's queue length up to time */
+    private void advanceQueue(int theMachine, int time) {
+        queueLengthArea[theMachine] += (long) queueLength[theMachine] * (time - lastQueueChange[theMachine]);
+        lastQueueChange[theMachine] = time;
+    }
+
+    @Override
+    public void jobArrived(int time, int theMachine, int theJob, int queueLength) {
+        advanceQueue(theMachine, time);
+        this.queueLength[theMachine] = queueLength;
+    }
+
+    @Override
+    public void taskStarted(int time, int theMachine, int theJob, int waitTime, int taskTime) {
+        advanceQueue(theMachine, time);
+        queueLength[theMachine]--;
+        busyTime[theMachine] += taskTime;
+    }
+
+    @Override
+    public void jobCompleted(int time, int theJob, int releaseTime, int totalWaitTime) {
+        waitTime.add(totalWaitTime);
+        flowTime.add(time - releaseTime);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            waitTimeQuantiles[i].add(totalWaitTime);
+            flowTimeQuantiles[i].add(time - releaseTime);
+        }
+    }
+
+    @Override
+    public void simulationFinished(int finishTime) {
+        this.finishTime = finishTime;
+        for (int p = 1; p <= numMachines; p++)
+            advanceQueue(p, finishTime);
+    }
+
+    public int getNumMachines() {
+        return numMachines;
+    }
+
+    public int getFinishTime() {
+        return finishTime;
+    }
+
+    /** @return statistics of the jobs' total wait times */
+    public RunningStatistics getWaitTime() {
+        return waitTime;
+    }
+
+    /** @return statistics of the jobs' flow times */
+    public RunningStatistics getFlowTime() {
+        return flowTime;
+    }
+
+    /** @return the estimated QUANTILES[i] quantile of the jobs' total wait times */
+    public double getWaitTimeQuantile(int i) {
+        return waitTimeQuantiles[i].getQuantile();
+    }
+
+    /** @return the estimated QUANTILES[i] quantile of the jobs' flow times */
+    public double getFlowTimeQuantile(int i) {
+        return flowTimeQuantiles[i].getQuantile();
+    }
+
+    /** @return the number of jobs waiting at theMachine, averaged over the run */
+    public double getAverageQueueLength(int theMachine) {
+        return finishTime == startTime ? 0 : (double) queueLengthArea[theMachine] / (finishTime - startTime);
+    }
+
+    /** @return the fraction of the run theMachine spent working on tasks */
+    public double getUtilization(int theMachine) {
+        return finishTime == startTime ? 0 : (double) busyTime[theMachine] / (finishTime - startTime);
+    }
+
+    /** write a readable summary of the statistics to out, which is flushed */
+    public void write(Writer out) {
+        try {
+            writeJobStatistics(out, "Wait time", waitTime, waitTimeQuantiles);
+            writeJobStatistics(out, "Flow time", flowTime, flowTimeQuantiles);
+            for (int p = 1; p <= numMachines; p++) {
+                out.write(String.format(Locale.ROOT, "Machine %d average queue length %.3f utilization %.3f%s",
+                        p, getAverageQueueLength(p), getUtilization(p), LINE_SEPARATOR));
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeJobStatistics(Writer out, String name, RunningStatistics statistics,
+                                           P2Quantile[] quantiles) throws IOException {
+        out.write(String.format(Locale.ROOT, "%s: mean %.3f standard deviation %.3f", name,
+                statistics.getMean(), statistics.getStandardDeviation()));
+        for (P2Quantile quantile : quantiles)
+            out.write(String.format(Locale.ROOT, " p%s %.1f", percent(quantile.getP()), quantile.getQuantile()));
+        out.write(LINE_SEPARATOR);
+    }
+
+    /** @return p as a percentage without a trailing .0 */
+    private static String percent(double p) {
+        double percent = 100 * p;
+        return percent == Math.rint(percent) ? Long.toString((long) percent) : Double.toString(percent);
+    }
+}
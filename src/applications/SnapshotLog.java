@@ -0,0 +1,144 @@
+package applications;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The in-memory snapshots a {@link SimulationEngine} takes every
+ * interval events for an {@link IncrementalSimulator}, together with
+ * the results of the jobs completed so far and the order jobs were
+ * released and completed in. A snapshot records each job in the shop
+ * by how many of its tasks it has started rather than by its tasks, so
+ * it is small and can be resumed against an edited specification.
+ */
+final class SnapshotLog {
+
+    /** the state of an engine between two events */
+    static final class Snapshot {
+        int timeNow;
+        int numJobs; // in the shop
+        int jobsReleased;
+        int numCompletedJobs;
+        final int[] finishTimes; // by machine
+        final int[] totalWaits;
+        final int[] numTasks;
+        final boolean[] busy; // true iff the machine's first job is its active job
+        final int[] firstJob; // machine p's jobs are firstJob[p] to firstJob[p + 1] - 1
+        final int[] jobs; // (id, tasks started, machine arrival time, time running) of each job in the shop
+
+        Snapshot(int numMachines, int numJobsInShop) {
+            finishTimes = new int[numMachines + 1];
+            totalWaits = new int[numMachines + 1];
+            numTasks = new int[numMachines + 1];
+            busy = new boolean[numMachines + 1];
+            firstJob = new int[numMachines + 2];
+            jobs = new int[4 * numJobsInShop];
+        }
+
+        /** @return the number of tasks machine p had finished */
+        int tasksFinished(int p) {
+            return numTasks[p] - (busy[p] ? 1 : 0);
+        }
+
+        /** @return the number of tasks job jobId had started, -1 if it wasn't in the shop */
+        int tasksStarted(int jobId) {
+            for (int j = 0; j < jobs.length; j += 4) {
+                if (jobs[j] == jobId)
+                    return jobs[j + 1];
+            }
+            return -1;
+        }
+
+        /** @return true iff job jobId was running a task */
+        boolean isRunning(int jobId) {
+            for (int p = 1; p < busy.length; p++) {
+                if (busy[p] && jobs[4 * firstJob[p]] == jobId)
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private final long interval;
+    private final ArrayList<Snapshot> snapshots = new ArrayList<>();
+    private int[] completedJobs = new int[3 * 64]; // (id, completion time, total wait) of each completed job
+    private int numCompletedJobs;
+    private int[] completionOrder = new int[1]; // by job, its index in completedJobs
+    private int[] releaseOrder = new int[1]; // by job, when the engine has a job source
+    private int numReleased;
+
+    SnapshotLog(long interval) {
+        this.interval = interval;
+    }
+
+    long getInterval() {
+        return interval;
+    }
+
+    int getNumSnapshots() {
+        return snapshots.size();
+    }
+
+    Snapshot getSnapshot(int index) {
+        return snapshots.get(index);
+    }
+
+    int getNumCompletedJobs() {
+        return numCompletedJobs;
+    }
+
+    void add(Snapshot snapshot) {
+        snapshots.add(snapshot);
+    }
+
+    void jobReleased(int jobId) {
+        releaseOrder[jobId] = numReleased++;
+    }
+
+    void jobCompleted(int jobId, int completionTime, int totalWaitTime) {
+        if (3 * numCompletedJobs == completedJobs.length)
+            completedJobs = Arrays.copyOf(completedJobs, 2 * completedJobs.length);
+        completedJobs[3 * numCompletedJobs] = jobId;
+        completedJobs[3 * numCompletedJobs + 1] = completionTime;
+        completedJobs[3 * numCompletedJobs + 2] = totalWaitTime;
+        completionOrder[jobId] = numCompletedJobs++;
+    }
+
+    /** @return true iff job jobId had been released from the job source when snapshot was taken */
+    boolean wasReleased(int jobId, Snapshot snapshot) {
+        return releaseOrder[jobId] < snapshot.jobsReleased;
+    }
+
+    /** @return true iff job jobId had completed when snapshot was taken */
+    boolean wasCompleted(int jobId, Snapshot snapshot) {
+        return completionOrder[jobId] < snapshot.numCompletedJobs;
+    }
+
+    /** forget everything, ready for a run of numJobs jobs from time 0 */
+    void clear(int numJobs) {
+        snapshots.clear();
+        numCompletedJobs = 0;
+        numReleased = 0;
+        completionOrder = new int[numJobs + 1];
+        Arrays.fill(completionOrder, Integer.MAX_VALUE);
+        releaseOrder = new int[numJobs + 1];
+        Arrays.fill(releaseOrder, Integer.MAX_VALUE);
+    }
+
+    /**
+     * forget what happened after snapshot index, ready for a run that
+     * carries on from it
+     */
+    void truncate(int index) {
+        Snapshot snapshot = snapshots.get(index);
+        snapshots.subList(index + 1, snapshots.size()).clear();
+        numCompletedJobs = snapshot.numCompletedJobs;
+        numReleased = snapshot.jobsReleased;
+    }
+
+    /** hand the results of the jobs completed so far to sink */
+    void replayCompletedJobs(ResultSink sink) {
+        for (int i = 0; i < 3 * numCompletedJobs; i += 3)
+            sink.jobCompleted(completedJobs[i], completedJobs[i + 1], completedJobs[i + 2]);
+    }
+}
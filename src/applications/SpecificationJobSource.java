@@ -0,0 +1,35 @@
+package applications;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Hands out the jobs of an in-memory specification in order of
+ * release time; jobs released at the same time come in id order.
+ */
+public class SpecificationJobSource implements JobSource {
+    private final SimulationSpecification specification;
+    private final Integer[] order; // job numbers in release order
+    private int next = 0;
+
+    public SpecificationJobSource(SimulationSpecification specification) {
+        this.specification = specification;
+        order = new Integer[specification.getNumJobs()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i + 1;
+        // a stable sort, so ties stay in id order
+        Arrays.sort(order, Comparator.comparingInt(specification::getReleaseTime));
+    }
+
+    public boolean hasNextJob() {
+        return next < order.length;
+    }
+
+    public int peekReleaseTime() {
+        return specification.getReleaseTime(order[next]);
+    }
+
+    public Job nextJob() {
+        return specification.createJob(order[next++]);
+    }
+}
@@ -1,23 +1,55 @@
 package applications;
 
+import java.util.Arrays;
+
 import exceptions.MyInputException;
-import utilities.MyInputStream;
+import utilities.IntegerInput;
+import utilities.IntegerScanner;
 
 public class SpecificationReader {
 
     private final SimulationSpecification specification;
-    private final MyInputStream keyboard;
+    private final IntegerInput keyboard;
+    private final boolean withReleaseTimes; // each job starts with its release time
+    private boolean prompting = true; // prompt on System.out before each input
 
+    /** read the specification from System.in */
     public SpecificationReader() {
+        this(new IntegerScanner());
+    }
+
+    public SpecificationReader(IntegerInput input) {
+        this(input, false);
+    }
+
+    /**
+     * @param withReleaseTimes true if each job's number of tasks is
+     *                         preceded by the time the job is released
+     */
+    public SpecificationReader(IntegerInput input, boolean withReleaseTimes) {
         specification = new SimulationSpecification();
-        keyboard = new MyInputStream();
+        keyboard = input;
+        this.withReleaseTimes = withReleaseTimes;
+    }
+
+    /**
+     * Turn the prompts for input on System.out on or off; they are
+     * only noise when reading a file.
+     */
+    public void setPrompting(boolean prompting) {
+        this.prompting = prompting;
+    }
+
+    private void prompt(String message) {
+        if (prompting)
+            System.out.println(message);
     }
 
     private void readChangeOverTimes() {
         // input the change-over times
         int changeOverTimes[] = new int[specification.getNumMachines()+1];
 
-        System.out.println("Enter change-over times for machines");
+        prompt("Enter change-over times for machines");
         for (int j = 1; j <= specification.getNumMachines(); j++) {
             int ct = keyboard.readInteger();
             if (ct < 0)
@@ -28,43 +60,84 @@ public class SpecificationReader {
         specification.setChangeOverTimes(changeOverTimes);
     }
 
-    private int[] createTaskSpecifications(Job job, int tasks) {
-        int[] specificationsForTasks = new int[2 * tasks + 1];
+    /** input the machine and time of a task into element k of taskMachines and taskTimes */
+    private void readTask(int[] taskMachines, int[] taskTimes, int k) {
+        int machine = keyboard.readInteger();
+        int taskTime = keyboard.readInteger();
+        if (machine < 1 || machine > specification.getNumMachines() || taskTime < 1) {
+            throw new MyInputException(MachineShopSimulator.BAD_MACHINE_NUMBER_OR_TASK_TIME);
+        }
+        taskMachines[k] = machine;
+        taskTimes[k] = taskTime;
+    }
 
-        //Refactor later with datastructures reafactor.
-        System.out.println("Enter the tasks (machine, time)"
+    private int readReleaseTime(int i) {
+        if (!withReleaseTimes) {
+            return 0;
+        }
+        prompt("Enter release time for job " + i);
+        int releaseTime = keyboard.readInteger();
+        if (releaseTime < 0) {
+            throw new MyInputException(MachineShopSimulator.RELEASE_TIME_MUST_BE_AT_LEAST_0);
+        }
+        return releaseTime;
+    }
+
+    private int readNumTasks(int i) {
+        prompt("Enter number of tasks for job " + i);
+        int tasks = keyboard.readInteger(); // number of tasks
+        if (tasks < 1) {
+            throw new MyInputException(MachineShopSimulator.EACH_JOB_MUST_HAVE_AT_LEAST_1_TASK);
+        }
+        prompt("Enter the tasks (machine, time)"
                 + " in process order");
-        for (int j = 1; j <= tasks; j++) { // get tasks for job i
-            int machine = keyboard.readInteger();
-            int taskTime = keyboard.readInteger();
-            if (machine < 1 || machine > specification.getNumMachines() || taskTime < 1) {
-                throw new MyInputException(MachineShopSimulator.BAD_MACHINE_NUMBER_OR_TASK_TIME);
-            }
-            specificationsForTasks[2*(j-1)+1] = machine;
-            specificationsForTasks[2*(j-1)+2] = taskTime;
+        return tasks;
+    }
+
+    /** input the specification of job i, as a job with its own task arrays */
+    Job readJob(int i) {
+        int releaseTime = readReleaseTime(i);
+        int tasks = readNumTasks(i);
+        int[] taskMachines = new int[tasks];
+        int[] taskTimes = new int[tasks];
+        for (int j = 0; j < tasks; j++) {
+            readTask(taskMachines, taskTimes, j);
         }
-        return specificationsForTasks;
+        Job job = new Job(i);
+        job.releaseTime = releaseTime;
+        job.setTasks(taskMachines, taskTimes, 0, tasks);
+        return job;
     }
 
+    /** input every job's tasks straight into the specification's packed arrays */
     private void readJobSpecifications() {
-        // input the jobs
-        Job[] jobs = new Job[specification.getNumJobs()+1]; //Refactor with javaCompRefactor
-        for (int i = 1; i <= specification.getNumJobs(); i++) {
-            System.out.println("Enter number of tasks for job " + i);
-            int tasks = keyboard.readInteger(); // number of tasks
-            if (tasks < 1) {
-                throw new MyInputException(MachineShopSimulator.EACH_JOB_MUST_HAVE_AT_LEAST_1_TASK);
+        int numJobs = specification.getNumJobs();
+        int[] firstTask = new int[numJobs + 2];
+        int[] releaseTimes = new int[numJobs + 1];
+        int[] taskMachines = new int[16];
+        int[] taskTimes = new int[16];
+        int task = 0;
+        for (int i = 1; i <= numJobs; i++) {
+            releaseTimes[i] = readReleaseTime(i);
+            int tasks = readNumTasks(i);
+            firstTask[i] = task;
+            for (int j = 0; j < tasks; j++, task++) {
+                if (task == taskMachines.length) {
+                    taskMachines = Arrays.copyOf(taskMachines, 2 * task);
+                    taskTimes = Arrays.copyOf(taskTimes, 2 * task);
+                }
+                readTask(taskMachines, taskTimes, task);
             }
-            jobs[i] = new Job(i);
-            jobs[i].numTasks = tasks;
-            int[] jobTasks = createTaskSpecifications(jobs[i], tasks);
-            jobs[i].setSpecificationsForTasks(jobTasks);
         }
-        specification.jobs = jobs;
+        firstTask[numJobs + 1] = task;
+        specification.setTasks(firstTask, Arrays.copyOf(taskMachines, task), Arrays.copyOf(taskTimes, task));
+        for (int i = 1; i <= numJobs; i++) {
+            specification.setReleaseTime(i, releaseTimes[i]);
+        }
     }
 
     private void readNumberMachinesAndJobs() {
-        System.out.println("Enter number of machines and jobs");
+        prompt("Enter number of machines and jobs");
         int numMachines = keyboard.readInteger();
         int numJobs = keyboard.readInteger();
         if (numMachines < 1 || numJobs < 1) {
@@ -77,9 +150,18 @@ public class SpecificationReader {
 
     /** input machine shop data */
     public SimulationSpecification readSpecification() {
+        readShop();
+        readJobSpecifications();
+        return specification;
+    }
+
+    /**
+     * input the number of machines and jobs and the change-over times,
+     * leaving the jobs to be read one at a time with readJob
+     */
+    public SimulationSpecification readShop() {
         readNumberMachinesAndJobs();
         readChangeOverTimes();
-        readJobSpecifications();
         return specification;
     }
 }
@@ -0,0 +1,56 @@
+package applications;
+
+import exceptions.MyInputException;
+
+/**
+ * Reads jobs from a SpecificationReader one at a time as the engine
+ * asks for them, so a specification never has to be in memory all at
+ * once. Only the next job is read ahead, to know its release time.
+ */
+public class StreamingJobSource implements JobSource {
+    private final SpecificationReader reader;
+    private final SimulationSpecification shop;
+    private int nextJobNumber = 1;
+    private Job nextJob; // read ahead, null once all jobs are read
+    private int lastReleaseTime = 0;
+
+    /**
+     * Read the shop from reader; its jobs are then read on demand.
+     * The jobs must come in nondecreasing order of release time.
+     */
+    public StreamingJobSource(SpecificationReader reader) {
+        this.reader = reader;
+        this.shop = reader.readShop();
+        readAhead();
+    }
+
+    /** @return the machines and change-over times, without any jobs */
+    public SimulationSpecification getShop() {
+        return shop;
+    }
+
+    private void readAhead() {
+        if (nextJobNumber > shop.getNumJobs()) {
+            nextJob = null;
+            return;
+        }
+        nextJob = reader.readJob(nextJobNumber++);
+        if (nextJob.releaseTime < lastReleaseTime)
+            throw new MyInputException(MachineShopSimulator.RELEASE_TIMES_MUST_NOT_DECREASE);
+        lastReleaseTime = nextJob.releaseTime;
+    }
+
+    public boolean hasNextJob() {
+        return nextJob != null;
+    }
+
+    public int peekReleaseTime() {
+        return nextJob.releaseTime;
+    }
+
+    public Job nextJob() {
+        Job job = nextJob;
+        readAhead();
+        return job;
+    }
+}
@@ -0,0 +1,65 @@
+package applications;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/** The results of all the variants of a sweep, in variant order. */
+public class SweepReport {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final List<SweepResult> results;
+
+    public SweepReport(SweepResult[] results) {
+        this.results = Collections.unmodifiableList(Arrays.asList(results.clone()));
+    }
+
+    public List<SweepResult> getResults() {
+        return results;
+    }
+
+    public SweepResult getResult(int variantIndex) {
+        return results.get(variantIndex);
+    }
+
+    /** @return the first variant with the smallest finish time */
+    public SweepResult getBestFinishTime() {
+        SweepResult best = null;
+        for (SweepResult result : results) {
+            if (best == null || result.getFinishTime() < best.getFinishTime())
+                best = result;
+        }
+        return best;
+    }
+
+    /**
+     * Write one tab separated line per variant: index, name, finish
+     * time, total wait, then the tasks and wait of each machine.
+     */
+    public void write(Writer out) {
+        try {
+            out.write("variant\tname\tfinish time\ttotal wait");
+            int numMachines = results.isEmpty() ? 0 : results.get(0).getNumMachines();
+            for (int p = 1; p <= numMachines; p++) {
+                out.write("\tmachine " + p + " tasks\tmachine " + p + " wait");
+            }
+            out.write(LINE_SEPARATOR);
+            for (SweepResult result : results) {
+                out.write(result.getVariantIndex() + "\t" + result.getVariantName()
+                        + "\t" + result.getFinishTime() + "\t" + result.getTotalWaitTime());
+                int[] tasks = result.getNumTasksPerMachine();
+                int[] waits = result.getTotalWaitTimePerMachine();
+                for (int p = 1; p < tasks.length; p++) {
+                    out.write("\t" + tasks[p] + "\t" + waits[p]);
+                }
+                out.write(LINE_SEPARATOR);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package applications;
+
+import java.util.Arrays;
+
+/**
+ * The shop-wide results of one variant of a parameter sweep: the
+ * finish time and, for each machine, how many tasks it ran and how
+ * long jobs waited for it. Per-job results aren't kept.
+ */
+public class SweepResult {
+    private final int variantIndex;
+    private final String variantName;
+    private final int finishTime;
+    private final int[] numTasksPerMachine;
+    private final int[] totalWaitTimePerMachine;
+
+    public SweepResult(int variantIndex, String variantName, int finishTime,
+                       int[] numTasksPerMachine, int[] totalWaitTimePerMachine) {
+        this.variantIndex = variantIndex;
+        this.variantName = variantName;
+        this.finishTime = finishTime;
+        this.numTasksPerMachine = numTasksPerMachine;
+        this.totalWaitTimePerMachine = totalWaitTimePerMachine;
+    }
+
+    public int getVariantIndex() {
+        return variantIndex;
+    }
+
+    public String getVariantName() {
+        return variantName;
+    }
+
+    public int getFinishTime() {
+        return finishTime;
+    }
+
+    public int getNumMachines() {
+        return numTasksPerMachine.length - 1;
+    }
+
+    public int[] getNumTasksPerMachine() {
+        return Arrays.copyOf(numTasksPerMachine, numTasksPerMachine.length);
+    }
+
+    public int[] getTotalWaitTimePerMachine() {
+        return Arrays.copyOf(totalWaitTimePerMachine, totalWaitTimePerMachine.length);
+    }
+
+    /** @return the sum of the wait times at all machines */
+    public long getTotalWaitTime() {
+        long total = 0;
+        for (int p = 1; p < totalWaitTimePerMachine.length; p++)
+            total += totalWaitTimePerMachine[p];
+        return total;
+    }
+}
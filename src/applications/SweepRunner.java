@@ -0,0 +1,100 @@
+package applications;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs every variant of a parameter sweep in one JVM, spreading them
+ * over the threads of a ForkJoinPool. Each variant gets its own
+ * specification and engine and nothing is shared between running
+ * simulations except read-only parts of the base specification. Each
+ * result is stored at its variant's index, so the report is the same
+ * whatever the number of threads.
+ */
+public class SweepRunner {
+    private final ForkJoinPool pool;
+    private final SimulationOptions options;
+
+    /** run on the common pool, which has a thread per core */
+    public SweepRunner() {
+        this(ForkJoinPool.commonPool(), new SimulationOptions());
+    }
+
+    public SweepRunner(ForkJoinPool pool, SimulationOptions options) {
+        this.pool = pool;
+        this.options = options;
+    }
+
+    public SweepReport run(SimulationSpecification base, ParameterSweep sweep) {
+        SweepResult[] results = new SweepResult[sweep.getNumVariants()];
+        pool.invoke(new RunVariants(this, base, sweep, results, 0, results.length));
+        return new SweepReport(results);
+    }
+
+    /** @return the result of simulating variant variantIndex of sweep */
+    SweepResult runVariant(SimulationSpecification base, ParameterSweep sweep, int variantIndex) {
+        return runVariant(variantIndex, sweep.getVariantName(variantIndex),
+                sweep.createVariant(base, variantIndex));
+    }
+
+    /** @return the result of simulating variant, which is variant variantIndex of some sweep */
+    SweepResult runVariant(int variantIndex, String variantName, SimulationSpecification variant) {
+        ShopTotals totals = new ShopTotals();
+        MachineShopSimulator.runSimulation(variant, options, totals);
+        return new SweepResult(variantIndex, variantName, totals.finishTime,
+                totals.numTasksPerMachine, totals.totalWaitTimePerMachine);
+    }
+
+    /** runs the variants with indexes in [from, to), splitting in halves */
+    private static final class RunVariants extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SweepRunner runner;
+        private final SimulationSpecification base;
+        private final ParameterSweep sweep;
+        private final SweepResult[] results;
+        private final int from;
+        private final int to;
+
+        RunVariants(SweepRunner runner, SimulationSpecification base, ParameterSweep sweep,
+                    SweepResult[] results, int from, int to) {
+            this.runner = runner;
+            this.base = base;
+            this.sweep = sweep;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to)
+                    results[from] = runner.runVariant(base, sweep, from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RunVariants(runner, base, sweep, results, from, middle),
+                    new RunVariants(runner, base, sweep, results, middle, to));
+        }
+    }
+
+    /** keeps the shop-wide results and drops the completed jobs */
+    private static class ShopTotals implements ResultSink {
+        private int finishTime;
+        private int[] numTasksPerMachine;
+        private int[] totalWaitTimePerMachine;
+
+        @Override
+        public void jobCompleted(int jobId, int completionTime, int totalWaitTime) {
+        }
+
+        @Override
+        public void simulationCompleted(int finishTime, int[] numTasksPerMachine,
+                                        int[] totalWaitTimePerMachine) {
+            this.finishTime = finishTime;
+            this.numTasksPerMachine = numTasksPerMachine;
+            this.totalWaitTimePerMachine = totalWaitTimePerMachine;
+        }
+    }
+}
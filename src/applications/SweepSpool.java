@@ -0,0 +1,292 @@
+package applications;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the variants of a parameter sweep in several worker processes
+ * that share nothing but a spool directory, for sweeps too big for one
+ * JVM. The coordinator writes each variant's specification to the
+ * spool; workers claim variants one at a time, run them and leave
+ * their results there, and the coordinator merges the results into a
+ * {@link SweepReport}. The directory holds:
+ *
+ * <pre>
+ * variants             the number of variants and their names
+ * pending/NNNNNNNN     variant NNNNNNNN, in the format of BinarySpecification
+ * claimed/NNNNNNNN.id  the variant, claimed by worker id
+ * done/NNNNNNNN        its result: finish time, machines, then tasks and wait per machine
+ * </pre>
+ *
+ * A worker claims a variant by renaming it from pending to claimed,
+ * which only one worker can do, and files only appear under their
+ * final names once complete, so workers need no other locking. If a
+ * worker dies, {@link #reclaim} puts its claims back in pending. A
+ * variant run twice gives the same result both times, so a worker
+ * that was only thought dead does no harm.
+ *
+ * Variants keep their release times and due dates through the binary
+ * format, so workers may run any dispatch policy, EDD included.
+ */
+public class SweepSpool {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final Path pending;
+    private final Path claimed;
+    private final Path done;
+
+    public SweepSpool(Path directory) {
+        this.directory = directory;
+        pending = directory.resolve("pending");
+        claimed = directory.resolve("claimed");
+        done = directory.resolve("done");
+    }
+
+    private static String fileName(int variantIndex) {
+        return String.format("%08d", variantIndex);
+    }
+
+    /** write every variant of sweep to the spool, which should be empty, ready for workers */
+    public void submit(SimulationSpecification base, ParameterSweep sweep) throws IOException {
+        Files.createDirectories(pending);
+        Files.createDirectories(claimed);
+        Files.createDirectories(done);
+        Path variants = directory.resolve("variants.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(variants), BUFFER_SIZE))) {
+            out.writeInt(sweep.getNumVariants());
+            for (int i = 0; i < sweep.getNumVariants(); i++)
+                out.writeUTF(sweep.getVariantName(i));
+        }
+        Files.move(variants, directory.resolve("variants"), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        for (int i = 0; i < sweep.getNumVariants(); i++) {
+            // written beside the queue and moved in whole, so a worker never sees half a file
+            Path file = directory.resolve(fileName(i) + ".tmp");
+            BinarySpecification.write(sweep.createVariant(base, i), file);
+            Files.move(file, pending.resolve(fileName(i)), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Claim and run variants as worker workerId until none are left
+     * pending.
+     *
+     * @return the number of variants this worker ran
+     */
+    public int work(String workerId, SimulationOptions options) throws IOException {
+        List<String> names = readVariantNames();
+        SweepRunner runner = new SweepRunner(ForkJoinPool.commonPool(), options);
+        int numRun = 0;
+        while (true) {
+            List<Path> files = listPending();
+            if (files.isEmpty())
+                return numRun;
+            // start somewhere different from the other workers, so they don't all race for the same files
+            Collections.rotate(files, ThreadLocalRandom.current().nextInt(files.size()));
+            for (Path file : files) {
+                Path claim = claim(file, workerId);
+                if (claim == null)
+                    continue; // another worker got there first
+                int variantIndex = Integer.parseInt(file.getFileName().toString());
+                SweepResult result = runner.runVariant(variantIndex, names.get(variantIndex),
+                        BinarySpecification.read(claim));
+                writeResult(result, workerId);
+                Files.deleteIfExists(claim);
+                numRun++;
+            }
+        }
+    }
+
+    private List<Path> listPending() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(pending)) {
+            for (Path file : stream)
+                files.add(file);
+        }
+        return files;
+    }
+
+    /** @return the claimed file, null if the variant was no longer pending */
+    Path claim(Path pendingFile, String workerId) throws IOException {
+        Path claim = claimed.resolve(pendingFile.getFileName() + "." + workerId);
+        try {
+            Files.move(pendingFile, claim, StandardCopyOption.ATOMIC_MOVE);
+            return claim;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void writeResult(SweepResult result, String workerId) throws IOException {
+        Path file = done.resolve(fileName(result.getVariantIndex()) + "." + workerId + ".tmp");
+        int[] tasks = result.getNumTasksPerMachine();
+        int[] waits = result.getTotalWaitTimePerMachine();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), BUFFER_SIZE))) {
+            out.writeInt(result.getFinishTime());
+            out.writeInt(result.getNumMachines());
+            for (int p = 1; p <= result.getNumMachines(); p++) {
+                out.writeInt(tasks[p]);
+                out.writeInt(waits[p]);
+            }
+        }
+        Files.move(file, done.resolve(fileName(result.getVariantIndex())), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Put the variants claimed by worker workerId back in pending, for
+     * when it has died.
+     *
+     * @return the number of variants put back
+     */
+    public int reclaim(String workerId) throws IOException {
+        int numReclaimed = 0;
+        String suffix = "." + workerId;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(claimed, "*" + suffix)) {
+            for (Path claim : stream) {
+                String name = claim.getFileName().toString();
+                try {
+                    Files.move(claim, pending.resolve(name.substring(0, name.length() - suffix.length())),
+                            StandardCopyOption.ATOMIC_MOVE);
+                    numReclaimed++;
+                } catch (NoSuchFileException | FileAlreadyExistsException e) {
+                    // the worker finished it after all, or it was reclaimed already
+                }
+            }
+        }
+        return numReclaimed;
+    }
+
+    /** @return true iff every variant has a result */
+    public boolean isComplete() throws IOException {
+        List<String> names = readVariantNames();
+        for (int i = 0; i < names.size(); i++) {
+            if (!Files.exists(done.resolve(fileName(i))))
+                return false;
+        }
+        return true;
+    }
+
+    /** @return the results of all the variants, in variant order */
+    public SweepReport merge() throws IOException {
+        List<String> names = readVariantNames();
+        SweepResult[] results = new SweepResult[names.size()];
+        for (int i = 0; i < results.length; i++) {
+            Path file = done.resolve(fileName(i));
+            if (!Files.exists(file))
+                throw new IllegalStateException("variant " + i + " has no result yet");
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(file), BUFFER_SIZE))) {
+                int finishTime = in.readInt();
+                int numMachines = in.readInt();
+                int[] tasks = new int[numMachines + 1];
+                int[] waits = new int[numMachines + 1];
+                for (int p = 1; p <= numMachines; p++) {
+                    tasks[p] = in.readInt();
+                    waits[p] = in.readInt();
+                }
+                results[i] = new SweepResult(i, names.get(i), finishTime, tasks, waits);
+            }
+        }
+        return new SweepReport(results);
+    }
+
+    private List<String> readVariantNames() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(directory.resolve("variants"))))) {
+            int numVariants = in.readInt();
+            List<String> names = new ArrayList<>(numVariants);
+            for (int i = 0; i < numVariants; i++)
+                names.add(in.readUTF());
+            return names;
+        }
+    }
+
+    /**
+     * Submit sweep and run it in numProcesses worker processes started
+     * with this JVM's class path, replacing any that die while variants
+     * are left. Gives up if workers die more than numProcesses times
+     * over without the sweep completing.
+     *
+     * @return the merged results
+     */
+    public SweepReport run(SimulationSpecification base, ParameterSweep sweep, int numProcesses)
+            throws IOException, InterruptedException {
+        if (numProcesses < 1)
+            throw new IllegalArgumentException("number of processes must be >= 1");
+        submit(base, sweep);
+        List<Process> workers = new ArrayList<>();
+        List<String> workerIds = new ArrayList<>();
+        int numStarted = 0;
+        int numFailures = 0;
+        try {
+            for (; numStarted < numProcesses; numStarted++) {
+                workers.add(startWorker("worker" + numStarted));
+                workerIds.add("worker" + numStarted);
+            }
+            while (!workers.isEmpty()) {
+                for (int w = workers.size() - 1; w >= 0; w--) {
+                    if (!workers.get(w).waitFor(50, TimeUnit.MILLISECONDS))
+                        continue;
+                    int status = workers.remove(w).exitValue();
+                    String workerId = workerIds.remove(w);
+                    if (status == 0)
+                        continue; // it found nothing left to claim
+                    reclaim(workerId);
+                    if (listPending().isEmpty())
+                        continue;
+                    if (++numFailures > numProcesses)
+                        throw new IOException("sweep workers keep failing");
+                    workers.add(startWorker("worker" + numStarted));
+                    workerIds.add("worker" + numStarted++);
+                }
+            }
+        } finally {
+            for (Process worker : workers)
+                worker.destroy();
+        }
+        return merge();
+    }
+
+    private Process startWorker(String workerId) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SweepSpool.class.getName(), directory.toString(), workerId)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * Run a worker on a spool that has been submitted to, on the flat
+     * engine. Usage: SweepSpool directory workerId
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: SweepSpool directory workerId");
+            System.exit(2);
+        }
+        SimulationOptions options = new SimulationOptions();
+        options.setEngineKind(SimulationOptions.EngineKind.FLAT);
+        new SweepSpool(Paths.get(args[0])).work(args[1], options);
+    }
+}
@@ -0,0 +1,67 @@
+package applications;
+
+import java.util.SplittableRandom;
+
+/**
+ * A distribution of the time a task takes on a machine, drawn from
+ * each time a task starts when task times are stochastic; see
+ * {@link SimulationOptions#setTaskTimeDistributions}. Drawing happens
+ * once per task, so it must not allocate. A WorkloadGenerator can take
+ * its task times from one as well.
+ */
+public interface TaskTimeDistribution extends IntDistribution {
+
+    /**
+     * the largest time the distributions here draw, half the time an
+     * idle machine waits for in the engine, so no single draw can carry
+     * a task past it; a run whose drawn times add up to more fails
+     * rather than wrapping around
+     */
+    int MAX_TASK_TIME = Integer.MAX_VALUE / 2;
+
+    /** @return a task time >= 1, drawn using random */
+    @Override
+    int sample(SplittableRandom random);
+
+    /** @return the exponential distribution with the given mean, rounded */
+    static TaskTimeDistribution exponential(double mean) {
+        if (!(mean > 0))
+            throw new IllegalArgumentException("mean must be > 0");
+        return random -> toTaskTime(-mean * Math.log(1 - random.nextDouble()));
+    }
+
+    /**
+     * @return the lognormal distribution whose log is normal with mean
+     * mu and standard deviation sigma, rounded
+     */
+    static TaskTimeDistribution lognormal(double mu, double sigma) {
+        if (!(sigma >= 0))
+            throw new IllegalArgumentException("sigma must be >= 0");
+        return random -> {
+            // Box-Muller, keeping one of the pair so there is no state between draws
+            double u = 1 - random.nextDouble(); // in (0, 1]
+            double normal = Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+            return toTaskTime(Math.exp(mu + sigma * normal));
+        };
+    }
+
+    /**
+     * @return a distribution drawing each of observedTimes, which must
+     * be from 1 to MAX_TASK_TIME, with equal probability
+     */
+    static TaskTimeDistribution empirical(int... observedTimes) {
+        if (observedTimes.length == 0)
+            throw new IllegalArgumentException("need at least one observed time");
+        int[] times = observedTimes.clone();
+        for (int time : times) {
+            if (time < 1 || time > MAX_TASK_TIME)
+                throw new IllegalArgumentException(MachineShopSimulator.BAD_MACHINE_NUMBER_OR_TASK_TIME);
+        }
+        return random -> times[random.nextInt(times.length)];
+    }
+
+    /** @return time rounded to the nearest int, but at least 1 and at most MAX_TASK_TIME */
+    static int toTaskTime(double time) {
+        return (int) Math.max(1, Math.min(MAX_TASK_TIME, Math.round(time)));
+    }
+}
@@ -0,0 +1,92 @@
+package applications;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes results in the simulator's text format as they arrive, so
+ * completed jobs don't have to be kept until the end of the run. The
+ * output is the same, byte for byte, as SimulationResults.print().
+ * The writer is flushed, but not closed, when the simulation completes.
+ */
+public class TextResultSink implements ResultSink {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+    private final char[] digits = new char[11]; // room for Integer.MIN_VALUE
+    private boolean summaryOnly; // leave out the line for each job
+
+    public TextResultSink(OutputStream out) {
+        this(new OutputStreamWriter(out));
+    }
+
+    public TextResultSink(Writer out) {
+        this.out = new BufferedWriter(out, BUFFER_SIZE);
+    }
+
+    /** leave out the line for each job, writing only the finish time and machine totals */
+    public void setSummaryOnly(boolean summaryOnly) {
+        this.summaryOnly = summaryOnly;
+    }
+
+    @Override
+    public void jobCompleted(int jobId, int completionTime, int totalWaitTime) {
+        if (summaryOnly)
+            return;
+        try {
+            out.write("Job ");
+            writeInt(jobId);
+            out.write(" has completed at ");
+            writeInt(completionTime);
+            out.write(" Total wait was ");
+            writeInt(totalWaitTime);
+            out.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void simulationCompleted(int finishTime, int[] numTasksPerMachine,
+                                    int[] totalWaitTimePerMachine) {
+        try {
+            out.write("Finish time = ");
+            writeInt(finishTime);
+            out.write(LINE_SEPARATOR);
+            for (int p = 1; p < numTasksPerMachine.length; p++) {
+                out.write("Machine ");
+                writeInt(p);
+                out.write(" completed ");
+                writeInt(numTasksPerMachine[p]);
+                out.write(" tasks");
+                out.write(LINE_SEPARATOR);
+                out.write("The total wait time was ");
+                writeInt(totalWaitTimePerMachine[p]);
+                out.write(LINE_SEPARATOR);
+                out.write(LINE_SEPARATOR);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** write value in decimal without creating a String */
+    private void writeInt(int value) throws IOException {
+        int position = digits.length;
+        // work with the negative value so that Integer.MIN_VALUE fits
+        int negative = value < 0 ? value : -value;
+        do {
+            digits[--position] = (char) ('0' - negative % 10);
+            negative /= 10;
+        } while (negative != 0);
+        if (value < 0)
+            digits[--position] = '-';
+        out.write(digits, position, digits.length - position);
+    }
+}
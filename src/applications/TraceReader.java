@@ -0,0 +1,295 @@
+package applications;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import exceptions.MyInputException;
+
+/**
+ * Answers queries over a trace written by {@link TraceRecorder}
+ * without loading it: the file is mapped in segments of up to a
+ * gigabyte, so traces can hold billions of records.
+ *
+ * Opening a trace reads it once to build an index. Records are in
+ * time order, so a time is found by binary search. For machines the
+ * records are split into blocks, and the index lists the blocks that
+ * hold records of each machine; a query about one machine reads only
+ * those blocks. Blocks hold at least 16 records per machine, so the
+ * index is at most a sixteenth of the number of records in ints.
+ * Per-machine queries are quickest over short windows; for a summary
+ * of every machine, {@link #utilization(int, int)} reads the window
+ * once.
+ */
+public class TraceReader implements Closeable {
+    private static final int SEGMENT_SHIFT = 26; // records per mapped segment, 2^26 of 16 bytes
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final int MIN_BLOCK_SHIFT = 10;
+
+    /** told about events in a scan; returns false to stop it */
+    public interface EventVisitor {
+        boolean visit(int time, int type, int theMachine, int theJob, int value);
+    }
+
+    /** told about a task on a machine, from start to finish */
+    public interface TaskVisitor {
+        void visit(int theJob, int start, int finish);
+    }
+
+    // data members
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int numMachines;
+    private final int finishTime;
+    private final long numRecords;
+    private final int blockShift; // records per block is 2^blockShift
+    private final int[][] machineBlocks; // [machine] the blocks holding its records, ascending
+    private final int[] numMachineBlocks;
+
+    public TraceReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(channel.size(), TraceRecorder.HEADER_SIZE));
+            header.order(ByteOrder.BIG_ENDIAN);
+            if (header.remaining() < TraceRecorder.HEADER_SIZE || header.getInt() != TraceRecorder.MAGIC
+                    || header.getInt() != TraceRecorder.VERSION)
+                throw new MyInputException(MachineShopSimulator.NOT_A_TRACE);
+            numMachines = header.getInt();
+            finishTime = header.getInt();
+            numRecords = header.getLong();
+            if (numMachines < 0 || numRecords < 0
+                    || channel.size() != TraceRecorder.HEADER_SIZE + numRecords * TraceRecorder.RECORD_SIZE)
+                throw new MyInputException(MachineShopSimulator.NOT_A_TRACE);
+
+            int numSegments = (int) ((numRecords + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[numSegments];
+            for (int s = 0; s < numSegments; s++) {
+                long first = (long) s << SEGMENT_SHIFT;
+                long records = Math.min(numRecords - first, 1L << SEGMENT_SHIFT);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        TraceRecorder.HEADER_SIZE + first * TraceRecorder.RECORD_SIZE,
+                        records * TraceRecorder.RECORD_SIZE);
+            }
+
+            int shift = MIN_BLOCK_SHIFT;
+            while (shift < SEGMENT_SHIFT && (1L << shift) < 16L * numMachines)
+                shift++;
+            blockShift = shift;
+            machineBlocks = new int[numMachines + 1][];
+            numMachineBlocks = new int[numMachines + 1];
+            buildIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void buildIndex() {
+        for (long i = 0; i < numRecords; i++) {
+            int theMachine = machineOf(i);
+            if (theMachine < 1 || theMachine > numMachines)
+                throw new MyInputException(MachineShopSimulator.NOT_A_TRACE);
+            int block = (int) (i >>> blockShift);
+            int n = numMachineBlocks[theMachine];
+            int[] blocks = machineBlocks[theMachine];
+            if (n > 0 && blocks[n - 1] == block)
+                continue;
+            if (blocks == null)
+                blocks = machineBlocks[theMachine] = new int[4];
+            else if (n == blocks.length)
+                blocks = machineBlocks[theMachine] = Arrays.copyOf(blocks, 2 * n);
+            blocks[n] = block;
+            numMachineBlocks[theMachine]++;
+        }
+    }
+
+    public int getNumMachines() {
+        return numMachines;
+    }
+
+    public int getFinishTime() {
+        return finishTime;
+    }
+
+    public long getNumRecords() {
+        return numRecords;
+    }
+
+    /** @return the byte index of field (0 to 3) of record i in its segment */
+    private static int offsetOf(long i, int field) {
+        return (int) (i & SEGMENT_MASK) * TraceRecorder.RECORD_SIZE + 4 * field;
+    }
+
+    private int field(long i, int field) {
+        return segments[(int) (i >>> SEGMENT_SHIFT)].getInt(offsetOf(i, field));
+    }
+
+    private int timeOf(long i) {
+        return field(i, 0);
+    }
+
+    private int machineOf(long i) {
+        return field(i, 1) & TraceRecorder.MACHINE_MASK;
+    }
+
+    private boolean visit(long i, EventVisitor visitor) {
+        int typeAndMachine = field(i, 1);
+        return visitor.visit(timeOf(i), typeAndMachine >>> TraceRecorder.TYPE_SHIFT,
+                typeAndMachine & TraceRecorder.MACHINE_MASK, field(i, 2), field(i, 3));
+    }
+
+    /** @return the index of the first record at or after time, numRecords if none */
+    public long firstRecordAtOrAfter(int time) {
+        long low = 0;
+        long high = numRecords;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (timeOf(middle) < time)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /** visit every event in [from, to) in order, until the visitor says stop */
+    public void scan(int from, int to, EventVisitor visitor) {
+        for (long i = firstRecordAtOrAfter(from); i < numRecords && timeOf(i) < to; i++)
+            if (!visit(i, visitor))
+                return;
+    }
+
+    /** visit theMachine's events from time from on, in order, until the visitor says stop */
+    public void scanMachine(int theMachine, int from, EventVisitor visitor) {
+        long first = firstRecordAtOrAfter(from);
+        int[] blocks = machineBlocks[theMachine];
+        if (blocks == null)
+            return; // no events on theMachine
+        int n = numMachineBlocks[theMachine];
+        int k = Arrays.binarySearch(blocks, 0, n, (int) (first >>> blockShift));
+        if (k < 0)
+            k = -k - 1;
+        for (; k < n; k++) {
+            long blockStart = Math.max(first, (long) blocks[k] << blockShift);
+            long blockEnd = Math.min(numRecords, (long) (blocks[k] + 1) << blockShift);
+            for (long i = blockStart; i < blockEnd; i++)
+                if (machineOf(i) == theMachine && !visit(i, visitor))
+                    return;
+        }
+    }
+
+    /**
+     * visit each task on theMachine that was running at some time in
+     * [from, to), in order of start time
+     */
+    public void forEachTask(int theMachine, int from, int to, TaskVisitor visitor) {
+        scanMachine(theMachine, from, (time, type, machine, theJob, value) -> {
+            if (type == TraceRecorder.TASK_STARTED) {
+                if (time >= to)
+                    return false;
+                visitor.visit(theJob, time, time + value);
+            } else if (type == TraceRecorder.TASK_FINISHED) {
+                // a task that started before the window is only seen finishing
+                int start = time - value;
+                if (start < from && time > from)
+                    visitor.visit(theJob, start, time);
+                if (time >= to)
+                    return false;
+            } else if (type == TraceRecorder.MACHINE_IDLE && time >= to) {
+                return false;
+            }
+            return true;
+        });
+    }
+
+    /** @return the fraction of [from, to) theMachine spent on tasks */
+    public double utilization(int theMachine, int from, int to) {
+        if (to <= from)
+            throw new IllegalArgumentException("empty time window");
+        long[] busy = new long[1];
+        forEachTask(theMachine, from, to,
+                (theJob, start, finish) -> busy[0] += Math.min(finish, to) - Math.max(start, from));
+        return (double) busy[0] / (to - from);
+    }
+
+    /**
+     * @return the fraction of [from, to) each machine spent on tasks,
+     *         indexed by machine, in one pass over the window
+     */
+    public double[] utilization(int from, int to) {
+        if (to <= from)
+            throw new IllegalArgumentException("empty time window");
+        long[] busy = new long[numMachines + 1];
+        boolean[] seen = new boolean[numMachines + 1]; // has a task event in the window
+        scan(from, to, (time, type, theMachine, theJob, value) -> {
+            if (type == TraceRecorder.TASK_STARTED) {
+                busy[theMachine] += Math.min(time + value, to) - time;
+                seen[theMachine] = true;
+            } else if (type == TraceRecorder.TASK_FINISHED) {
+                if (time - value < from)
+                    busy[theMachine] += time - from;
+                seen[theMachine] = true;
+            }
+            return true;
+        });
+        double[] utilization = new double[numMachines + 1];
+        for (int p = 1; p <= numMachines; p++) {
+            // a machine with no task events in the window may be in the middle of a long task
+            utilization[p] = seen[p] ? (double) busy[p] / (to - from) : utilization(p, from, to);
+        }
+        return utilization;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Query a trace file. Usage:
+     * <pre>
+     * TraceReader file summary [from to]       utilization of every machine
+     * TraceReader file gantt machine [from to] the machine's tasks
+     * TraceReader file events [from to]        every event
+     * </pre>
+     * The time window defaults to the whole run.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: TraceReader file summary|gantt machine|events [from to]");
+            System.exit(2);
+        }
+        try (TraceReader reader = new TraceReader(Paths.get(args[0]))) {
+            String query = args[1];
+            int next = query.equals("gantt") ? 3 : 2;
+            int from = args.length > next ? Integer.parseInt(args[next]) : 0;
+            int to = args.length > next + 1 ? Integer.parseInt(args[next + 1]) : reader.getFinishTime() + 1;
+            if (query.equals("summary")) {
+                System.out.println(reader.getNumRecords() + " events, finish time " + reader.getFinishTime());
+                double[] utilization = reader.utilization(from, to);
+                for (int p = 1; p <= reader.getNumMachines(); p++)
+                    System.out.printf("Machine %d utilization %.4f%n", p, utilization[p]);
+            } else if (query.equals("gantt")) {
+                reader.forEachTask(Integer.parseInt(args[2]), from, to, (theJob, start, finish) ->
+                        System.out.println("Job " + theJob + " from " + start + " to " + finish));
+            } else if (query.equals("events")) {
+                String[] names = {"arrived", "started", "finished", "idle"};
+                reader.scan(from, to, (time, type, theMachine, theJob, value) -> {
+                    System.out.println(time + " machine " + theMachine + " " + names[type]
+                            + (theJob != 0 ? " job " + theJob : "") + (value != 0 ? " " + value : ""));
+                    return true;
+                });
+            } else {
+                System.err.println("unknown query " + query);
+                System.exit(2);
+            }
+        }
+    }
+}
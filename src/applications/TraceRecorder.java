@@ -0,0 +1,241 @@
+package applications;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A listener that records every machine event of a run to a binary
+ * trace file, for reading back with {@link TraceReader}.
+ *
+ * Each event is a fixed-width record of four big-endian ints:
+ *
+ * <pre>
+ * time
+ * type &lt;&lt; 28 | machine   type is JOB_ARRIVED, TASK_STARTED, TASK_FINISHED or MACHINE_IDLE
+ * job                    0 for MACHINE_IDLE
+ * value                  the queue length for JOB_ARRIVED, the task time
+ *                        for TASK_STARTED and TASK_FINISHED, else 0
+ * </pre>
+ *
+ * Records are in the order the engine reports them, so their times
+ * never decrease. The file starts with a header of HEADER_SIZE bytes:
+ * a magic number, the format version, the number of machines, the
+ * finish time and the number of records as a long.
+ *
+ * The engine's thread only copies records into a preallocated buffer.
+ * Full buffers go round a small ring to a background thread that
+ * copies them into the file through memory-mapped regions, so the run
+ * waits for the disk only when it gets a whole ring ahead of it. Each
+ * region covers just the bytes about to be written, so the file never
+ * grows past its records and needn't be cut back while regions are
+ * still mapped. The file is complete once the simulation finishes or
+ * the recorder is closed. A recorder is for one run.
+ */
+public class TraceRecorder implements SimulationListener, Closeable {
+    public static final int JOB_ARRIVED = 0;
+    public static final int TASK_STARTED = 1;
+    public static final int TASK_FINISHED = 2; // the change-over starts
+    public static final int MACHINE_IDLE = 3;
+
+    static final int MAGIC = 0x4D535452; // "MSTR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 16;
+    static final int TYPE_SHIFT = 28;
+    static final int MACHINE_MASK = (1 << TYPE_SHIFT) - 1;
+
+    private static final int BUFFER_SIZE = 1 << 20; // bytes
+    private static final int NUM_BUFFERS = 4;
+    private static final long REGION_SIZE = 1 << 26; // most bytes mapped at a time
+    private static final ByteBuffer END = ByteBuffer.allocate(0); // no more buffers
+
+    private final FileChannel channel;
+    private final long regionSize;
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(NUM_BUFFERS);
+    private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(NUM_BUFFERS + 1);
+    private final Thread writer;
+    private volatile IOException writeFailure;
+    private ByteBuffer buffer; // being filled by the engine's thread
+    private long numRecords;
+    private int numMachines;
+    private int finishTime;
+    private int[] taskStartTime; // by machine, of the task in progress
+    private boolean closed;
+
+    /** record to file, replacing anything already there */
+    public TraceRecorder(Path file) throws IOException {
+        this(file, BUFFER_SIZE, REGION_SIZE);
+    }
+
+    /**
+     * @param bufferSize bytes in each of the ring's buffers, rounded
+     *                   down to a whole number of records
+     * @param regionSize the most bytes of the file mapped at a time
+     */
+    TraceRecorder(Path file, int bufferSize, long regionSize) throws IOException {
+        if (bufferSize < RECORD_SIZE || regionSize < 1)
+            throw new IllegalArgumentException("buffer and region sizes must be positive");
+        this.regionSize = regionSize;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        for (int i = 0; i < NUM_BUFFERS; i++)
+            free.add(ByteBuffer.allocate(bufferSize - bufferSize % RECORD_SIZE));
+        buffer = free.remove();
+        writer = new Thread(this::writeBuffers, "trace writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void simulationStarted(int numMachines) {
+        if (numMachines > MACHINE_MASK)
+            throw new IllegalArgumentException("too many machines to trace");
+        this.numMachines = numMachines;
+        taskStartTime = new int[numMachines + 1];
+    }
+
+    @Override
+    public void jobArrived(int time, int theMachine, int theJob, int queueLength) {
+        record(time, JOB_ARRIVED, theMachine, theJob, queueLength);
+    }
+
+    @Override
+    public void taskStarted(int time, int theMachine, int theJob, int waitTime, int taskTime) {
+        taskStartTime[theMachine] = time;
+        record(time, TASK_STARTED, theMachine, theJob, taskTime);
+    }
+
+    @Override
+    public void taskFinished(int time, int theMachine, int theJob) {
+        record(time, TASK_FINISHED, theMachine, theJob, time - taskStartTime[theMachine]);
+    }
+
+    @Override
+    public void machineIdle(int time, int theMachine) {
+        record(time, MACHINE_IDLE, theMachine, 0, 0);
+    }
+
+    @Override
+    public void simulationFinished(int finishTime) {
+        this.finishTime = finishTime;
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** @return the number of events recorded so far */
+    public long getNumRecords() {
+        return numRecords;
+    }
+
+    private void record(int time, int type, int theMachine, int theJob, int value) {
+        if (!buffer.hasRemaining())
+            handOff();
+        buffer.putInt(time);
+        buffer.putInt(type << TYPE_SHIFT | theMachine);
+        buffer.putInt(theJob);
+        buffer.putInt(value);
+        numRecords++;
+    }
+
+    /** pass the full buffer to the writer and take an empty one */
+    private void handOff() {
+        buffer.flip();
+        full.add(buffer);
+        buffer = null;
+        try {
+            while (buffer == null) {
+                if (writeFailure != null)
+                    throw new UncheckedIOException(writeFailure);
+                buffer = free.poll(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while tracing", e);
+        }
+    }
+
+    /** the writer thread: copy full buffers into the file in order */
+    private void writeBuffers() {
+        try {
+            long position = HEADER_SIZE; // of the next record in the file
+            while (true) {
+                ByteBuffer next = full.take();
+                if (next == END)
+                    return;
+                while (next.hasRemaining()) {
+                    int length = (int) Math.min(next.remaining(), regionSize);
+                    MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+                    ByteBuffer part = next.duplicate();
+                    part.limit(part.position() + length);
+                    region.put(part);
+                    next.position(next.position() + length);
+                    position += length;
+                }
+                next.clear();
+                free.add(next);
+            }
+        } catch (IOException e) {
+            writeFailure = e;
+        } catch (InterruptedException e) {
+            writeFailure = new IOException("trace writer interrupted", e);
+        }
+    }
+
+    /**
+     * Write out the records still in the buffer and fill in the
+     * header.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            if (buffer != null) {// null if a hand-off failed
+                buffer.flip();
+                if (buffer.hasRemaining())
+                    full.add(buffer);
+            }
+            full.add(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while closing the trace", e);
+        } finally {
+            try {
+                if (writeFailure == null)
+                    finishFile();
+            } finally {
+                channel.close();
+            }
+        }
+        if (writeFailure != null)
+            throw writeFailure;
+    }
+
+    private void finishFile() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(numMachines);
+        header.putInt(finishTime);
+        header.putLong(numRecords);
+        header.flip();
+        while (header.hasRemaining())
+            channel.write(header, header.position());
+        channel.force(true);
+    }
+}
@@ -0,0 +1,220 @@
+package applications;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates seeded random shops of any size, either as an in-memory
+ * specification or streamed, a job at a time, in the text format read
+ * by SpecificationReader. The same settings and seed give the same
+ * shop either way. By default the workload is that of
+ * scripts/GenTestCases.rb: 1 to 32 tasks per job, task times from 1 to
+ * 32, change-over times from 0 to 31 and machines chosen uniformly.
+ *
+ * A routing skew s > 0 sends tasks to machine k with probability
+ * proportional to 1 / k^s (a Zipf distribution), so the low numbered
+ * machines become bottlenecks.
+ */
+public class WorkloadGenerator {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // data members
+    private final int numMachines;
+    private final int numJobs;
+    private long seed = 0;
+    private IntDistribution tasksPerJob = IntDistribution.uniform(1, 32);
+    private IntDistribution taskTime = IntDistribution.uniform(1, 32);
+    private IntDistribution changeOverTime = IntDistribution.uniform(0, 31);
+    private double routingSkew = 0;
+
+    public WorkloadGenerator(int numMachines, int numJobs) {
+        if (numMachines < 1 || numJobs < 1)
+            throw new IllegalArgumentException(MachineShopSimulator.NUMBER_OF_MACHINES_AND_JOBS_MUST_BE_AT_LEAST_1);
+        this.numMachines = numMachines;
+        this.numJobs = numJobs;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /** set the distribution of the number of tasks in a job, all >= 1 */
+    public void setTasksPerJob(IntDistribution tasksPerJob) {
+        this.tasksPerJob = tasksPerJob;
+    }
+
+    /**
+     * set the distribution of task times, all >= 1; any
+     * TaskTimeDistribution will do
+     */
+    public void setTaskTime(IntDistribution taskTime) {
+        this.taskTime = taskTime;
+    }
+
+    /** set the distribution of machines' change-over times, all >= 0 */
+    public void setChangeOverTime(IntDistribution changeOverTime) {
+        this.changeOverTime = changeOverTime;
+    }
+
+    /** set the Zipf exponent for choosing machines; 0 for uniform */
+    public void setRoutingSkew(double routingSkew) {
+        if (routingSkew < 0)
+            throw new IllegalArgumentException("routing skew must be >= 0");
+        this.routingSkew = routingSkew;
+    }
+
+    /** @return the generated shop as a specification */
+    public SimulationSpecification generate() {
+        Generation generation = new Generation();
+        SimulationSpecification specification = new SimulationSpecification();
+        specification.setNumMachines(numMachines);
+        specification.setNumJobs(numJobs);
+        specification.setChangeOverTimes(generation.nextChangeOverTimes());
+
+        int[] firstTask = new int[numJobs + 2];
+        int[] taskMachines = new int[Math.max(numJobs, 16)];
+        int[] taskTimes = new int[taskMachines.length];
+        int task = 0;
+        for (int i = 1; i <= numJobs; i++) {
+            int[] specificationsForTasks = generation.nextJob();
+            firstTask[i] = task;
+            for (int j = 1; j < specificationsForTasks.length; j += 2, task++) {
+                if (task == taskMachines.length) {
+                    taskMachines = Arrays.copyOf(taskMachines, 2 * task);
+                    taskTimes = Arrays.copyOf(taskTimes, 2 * task);
+                }
+                taskMachines[task] = specificationsForTasks[j];
+                taskTimes[task] = specificationsForTasks[j + 1];
+            }
+        }
+        firstTask[numJobs + 1] = task;
+        specification.setTasks(firstTask, Arrays.copyOf(taskMachines, task), Arrays.copyOf(taskTimes, task));
+        return specification;
+    }
+
+    /**
+     * Write the generated shop to out as text, holding only one job in
+     * memory at a time. out is flushed but not closed.
+     */
+    public void write(Writer out) {
+        Generation generation = new Generation();
+        try {
+            BufferedWriter writer = new BufferedWriter(out, BUFFER_SIZE);
+            writer.write(numMachines + " " + numJobs);
+            writer.newLine();
+            int[] changeOverTimes = generation.nextChangeOverTimes();
+            for (int p = 1; p <= numMachines; p++) {
+                writer.write(Integer.toString(changeOverTimes[p]));
+                writer.write(p < numMachines ? ' ' : '\n');
+            }
+            for (int i = 1; i <= numJobs; i++) {
+                int[] specificationsForTasks = generation.nextJob();
+                writer.write(Integer.toString(specificationsForTasks.length / 2));
+                writer.newLine();
+                for (int j = 1; j < specificationsForTasks.length; j++) {
+                    writer.write(Integer.toString(specificationsForTasks[j]));
+                    writer.write(j < specificationsForTasks.length - 1 ? ' ' : '\n');
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** write the generated shop to the file at path */
+    public void write(Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            write(out);
+        }
+    }
+
+    /** one pass over the shop, drawing from a fresh random source */
+    private class Generation {
+        private final SplittableRandom random = new SplittableRandom(seed);
+        private final double[] routingCdf = routingSkew == 0 ? null : zipfCdf(numMachines, routingSkew);
+
+        int[] nextChangeOverTimes() {
+            int[] changeOverTimes = new int[numMachines + 1];
+            for (int p = 1; p <= numMachines; p++) {
+                changeOverTimes[p] = changeOverTime.sample(random);
+                if (changeOverTimes[p] < 0)
+                    throw new IllegalStateException(MachineShopSimulator.CHANGE_OVER_TIME_MUST_BE_AT_LEAST_0);
+            }
+            return changeOverTimes;
+        }
+
+        int[] nextJob() {
+            int tasks = tasksPerJob.sample(random);
+            if (tasks < 1)
+                throw new IllegalStateException(MachineShopSimulator.EACH_JOB_MUST_HAVE_AT_LEAST_1_TASK);
+            int[] specificationsForTasks = new int[2 * tasks + 1];
+            for (int j = 1; j <= tasks; j++) {
+                int machine = nextMachine();
+                int time = taskTime.sample(random);
+                if (time < 1)
+                    throw new IllegalStateException(MachineShopSimulator.BAD_MACHINE_NUMBER_OR_TASK_TIME);
+                specificationsForTasks[2 * (j - 1) + 1] = machine;
+                specificationsForTasks[2 * (j - 1) + 2] = time;
+            }
+            return specificationsForTasks;
+        }
+
+        private int nextMachine() {
+            if (routingCdf == null)
+                return random.nextInt(numMachines) + 1;
+            // the first machine whose cumulative probability exceeds u
+            double u = random.nextDouble();
+            int low = 1;
+            int high = numMachines;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (routingCdf[middle] > u)
+                    high = middle;
+                else
+                    low = middle + 1;
+            }
+            return low;
+        }
+    }
+
+    /** @return cdf with cdf[k] the probability of choosing a machine <= k */
+    private static double[] zipfCdf(int numMachines, double skew) {
+        double[] cdf = new double[numMachines + 1];
+        double sum = 0;
+        for (int k = 1; k <= numMachines; k++) {
+            sum += Math.pow(k, -skew);
+            cdf[k] = sum;
+        }
+        for (int k = 1; k <= numMachines; k++)
+            cdf[k] /= sum;
+        cdf[numMachines] = 1;
+        return cdf;
+    }
+
+    /**
+     * Write a generated shop to standard output.
+     * Arguments: number of machines, number of jobs, and optionally the
+     * seed and the routing skew.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("usage: WorkloadGenerator machines jobs [seed [routingSkew]]");
+            System.exit(1);
+        }
+        WorkloadGenerator generator = new WorkloadGenerator(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        if (args.length > 2)
+            generator.setSeed(Long.parseLong(args[2]));
+        if (args.length > 3)
+            generator.setRoutingSkew(Double.parseDouble(args[3]));
+        generator.write(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+    }
+}
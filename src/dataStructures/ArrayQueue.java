@@ -0,0 +1,100 @@
+/** a circular array queue class that doubles its array when full */
+
+package dataStructures;
+
+public class ArrayQueue implements Queue {
+    // data members
+    protected Object[] queue; // array for queue elements, length is a power of 2
+    protected int front; // index of the front element
+    protected int size; // number of elements in the queue
+
+    // constructors
+    /** create an empty queue whose initial capacity is at least initialCapacity */
+    public ArrayQueue(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("initialCapacity must be >= 0");
+        int capacity = 8;
+        while (capacity < initialCapacity)
+            capacity <<= 1;
+        queue = new Object[capacity];
+    }
+
+    public ArrayQueue() {
+        this(8);
+    }
+
+    // methods
+    /** @return true iff queue is empty */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the element at the front of the queue
+     * @return null if the queue is empty
+     */
+    public Object getFrontElement() {
+        if (isEmpty())
+            return null;
+        else
+            return queue[front];
+    }
+
+    /**
+     * @return the element at the rear of the queue
+     * @return null if the queue is empty
+     */
+    public Object getRearElement() {
+        if (isEmpty())
+            return null;
+        else
+            return queue[(front + size - 1) & (queue.length - 1)];
+    }
+
+    /** insert theElement at the rear of the queue */
+    public void put(Object theElement) {
+        if (size == queue.length)
+            grow();
+        queue[(front + size) & (queue.length - 1)] = theElement;
+        size++;
+    }
+
+    /**
+     * remove an element from the front of the queue
+     *
+     * @return removed element
+     * @return null if the queue is empty
+     */
+    public Object remove() {
+        if (isEmpty())
+            return null;
+        Object frontElement = queue[front];
+        queue[front] = null; // enable garbage collection
+        front = (front + 1) & (queue.length - 1);
+        size--;
+        return frontElement;
+    }
+
+    /** @return number of elements in the queue */
+    public int size() {
+        return size;
+    }
+
+    /** double the array, unwrapping the elements to start at index 0 */
+    private void grow() {
+        Object[] newQueue = new Object[queue.length * 2];
+        int firstPart = queue.length - front;
+        System.arraycopy(queue, front, newQueue, 0, firstPart);
+        System.arraycopy(queue, 0, newQueue, firstPart, front);
+        queue = newQueue;
+        front = 0;
+    }
+
+    @Override public String toString() {
+        StringBuilder result = new StringBuilder("<");
+        for (int i = 0; i < size; i++)
+            result.append(queue[(front + i) & (queue.length - 1)]).append(", ");
+        result.append(">");
+        return result.toString();
+    }
+}
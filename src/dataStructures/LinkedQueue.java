@@ -6,6 +6,7 @@ public class LinkedQueue implements Queue {
     // data members
     protected ChainNode front;
     protected ChainNode rear;
+    protected int size;
 
     // constructors
     /** create an empty queue */
@@ -56,6 +57,7 @@ public class LinkedQueue implements Queue {
         else
             rear.next = p; // nonempty queue
         rear = p;
+        size++;
     }
 
     /**
@@ -69,21 +71,15 @@ public class LinkedQueue implements Queue {
             return null;
         Object frontElement = front.element;
         front = front.next;
+        size--;
         if (isEmpty())
             rear = null; // enable garbage collection
         return frontElement;
     }
 
+    /** @return the number of elements in the queue */
     public int size() {
-        int result = 0;
-
-        ChainNode currentNode = front;
-        while (currentNode != null) {
-            ++result;
-            currentNode = currentNode.next;
-        }
-
-        return result;
+        return size;
     }
 
     /** test program */
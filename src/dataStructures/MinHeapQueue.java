@@ -0,0 +1,154 @@
+/** a priority queue class backed by an array min heap */
+
+package dataStructures;
+
+import java.util.Comparator;
+
+/**
+ * A queue whose front is always its least element under a comparator.
+ * Elements that compare equal leave in the order they were put, so
+ * with a comparator that finds every element equal this is a FIFO
+ * queue. put and remove take O(log n) time.
+ */
+public class MinHeapQueue implements Queue {
+    // data members
+    protected final Comparator<Object> comparator;
+    protected Object[] heap; // heap[1..size] holds the elements
+    protected long[] sequence; // sequence[i] is the put number of heap[i], breaks ties
+    protected int size; // number of elements in the queue
+    protected long nextSequence; // put number of the next element
+
+    // constructors
+    /**
+     * create an empty queue ordered by comparator whose initial
+     * capacity is at least initialCapacity
+     */
+    public MinHeapQueue(Comparator<Object> comparator, int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("initialCapacity must be >= 0");
+        this.comparator = comparator;
+        heap = new Object[Math.max(initialCapacity, 8) + 1];
+        sequence = new long[heap.length];
+    }
+
+    public MinHeapQueue(Comparator<Object> comparator) {
+        this(comparator, 8);
+    }
+
+    // methods
+    /** @return true iff queue is empty */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the least element, the one remove returns next
+     * @return null if the queue is empty
+     */
+    public Object getFrontElement() {
+        if (isEmpty())
+            return null;
+        else
+            return heap[1];
+    }
+
+    /**
+     * @return the greatest element, the one that would be removed last;
+     *         takes O(n) time
+     * @return null if the queue is empty
+     */
+    public Object getRearElement() {
+        if (isEmpty())
+            return null;
+        // the greatest element is a leaf
+        int rear = size / 2 + 1;
+        for (int i = rear + 1; i <= size; i++)
+            if (less(rear, i))
+                rear = i;
+        return heap[rear];
+    }
+
+    /** insert theElement into the queue */
+    public void put(Object theElement) {
+        if (size == heap.length - 1)
+            grow();
+        // find place for theElement, moving parents down until it fits
+        long theSequence = nextSequence++;
+        int currentNode = ++size;
+        while (currentNode != 1) {
+            int parent = currentNode / 2;
+            int c = comparator.compare(theElement, heap[parent]);
+            if (c > 0 || (c == 0 && theSequence > sequence[parent]))
+                break;
+            heap[currentNode] = heap[parent];
+            sequence[currentNode] = sequence[parent];
+            currentNode = parent;
+        }
+        heap[currentNode] = theElement;
+        sequence[currentNode] = theSequence;
+    }
+
+    /**
+     * remove the least element from the queue
+     *
+     * @return removed element
+     * @return null if the queue is empty
+     */
+    public Object remove() {
+        if (isEmpty())
+            return null;
+        Object frontElement = heap[1];
+
+        // reinsert the last element, moving smaller children up until it fits
+        Object lastElement = heap[size];
+        long lastSequence = sequence[size];
+        heap[size--] = null; // enable garbage collection
+        int currentNode = 1;
+        int child = 2;
+        while (child <= size) {
+            if (child < size && less(child + 1, child))
+                child++;
+            int c = comparator.compare(lastElement, heap[child]);
+            if (c < 0 || (c == 0 && lastSequence < sequence[child]))
+                break;
+            heap[currentNode] = heap[child];
+            sequence[currentNode] = sequence[child];
+            currentNode = child;
+            child *= 2;
+        }
+        if (size > 0) {
+            heap[currentNode] = lastElement;
+            sequence[currentNode] = lastSequence;
+        }
+        return frontElement;
+    }
+
+    /** @return number of elements in the queue */
+    public int size() {
+        return size;
+    }
+
+    /** @return true iff heap[i] leaves the queue before heap[j] */
+    private boolean less(int i, int j) {
+        int c = comparator.compare(heap[i], heap[j]);
+        return c < 0 || (c == 0 && sequence[i] < sequence[j]);
+    }
+
+    /** double the arrays */
+    private void grow() {
+        Object[] newHeap = new Object[2 * heap.length - 1];
+        System.arraycopy(heap, 1, newHeap, 1, size);
+        long[] newSequence = new long[newHeap.length];
+        System.arraycopy(sequence, 1, newSequence, 1, size);
+        heap = newHeap;
+        sequence = newSequence;
+    }
+
+    @Override public String toString() {
+        StringBuilder result = new StringBuilder("<");
+        for (int i = 1; i <= size; i++)
+            result.append(heap[i]).append(", ");
+        result.append(">");
+        return result.toString();
+    }
+}
@@ -10,4 +10,6 @@ public interface Queue {
     public void put(Object theObject);
 
     public Object remove();
+
+    public int size();
 }
@@ -0,0 +1,16 @@
+package utilities;
+
+/** A source of whitespace separated integers. */
+public interface IntegerInput {
+    /**
+     * Input an integer.
+     *
+     * @exception exceptions.MyInputException
+     *                thrown if some error occurs while reading or if the
+     *                end of file is reached
+     * @exception NumberFormatException
+     *                thrown if the next token isn't an int
+     * @return next token as an integer number
+     */
+    public int readInteger();
+}
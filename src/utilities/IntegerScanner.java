@@ -0,0 +1,202 @@
+/** fast integer input utility */
+
+package utilities;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import exceptions.MyInputException;
+
+/**
+ * Reads whitespace separated integers straight from the bytes of the
+ * input, without building lines, tokens or strings. Tokens are split
+ * on the same characters as StringTokenizer, and errors are reported
+ * the same way as by MyInputStream: a MyInputException with the
+ * message "End of file" at the end of the input and a
+ * NumberFormatException for a token that isn't an int.
+ */
+public class IntegerScanner implements IntegerInput {
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    // data members
+    private final ReadableByteChannel channel; // null when reading from source
+    private final ByteBuffer source; // in-memory input, null when reading from channel
+    private byte[] buffer;
+    private ByteBuffer window; // wraps buffer for channel reads, null when reading from source
+    private int position; // index of the next unread byte in buffer
+    private int limit; // index one past the last valid byte in buffer
+    private boolean endOfInput;
+
+    /**
+     * Constructor to read from standard input stream System.in.
+     */
+    public IntegerScanner() {
+        this(System.in);
+    }
+
+    /**
+     * Constructor to read from a file.
+     */
+    public IntegerScanner(String fileName) {
+        this(openFile(fileName));
+    }
+
+    public IntegerScanner(InputStream in) {
+        this(Channels.newChannel(in), DEFAULT_BUFFER_SIZE);
+    }
+
+    public IntegerScanner(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    IntegerScanner(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.source = null;
+        this.buffer = new byte[bufferSize];
+        this.window = ByteBuffer.wrap(buffer);
+    }
+
+    /**
+     * Constructor to read the remaining bytes of an in-memory or
+     * memory-mapped buffer. The buffer's position is advanced as it's
+     * read.
+     */
+    public IntegerScanner(ByteBuffer source) {
+        this(source, DEFAULT_BUFFER_SIZE);
+    }
+
+    IntegerScanner(ByteBuffer source, int bufferSize) {
+        this.channel = null;
+        this.source = source;
+        this.buffer = new byte[bufferSize];
+        this.window = null;
+    }
+
+    private static ReadableByteChannel openFile(String fileName) {
+        try {
+            return new FileInputStream(fileName).getChannel();
+        } catch (FileNotFoundException e) {
+            throw new MyInputException(e.getMessage());
+        }
+    }
+
+    /** @return true iff b separates tokens, as for StringTokenizer */
+    private static boolean isDelimiter(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+    }
+
+    /**
+     * Refill the buffer, keeping the bytes from keepFrom on (the start
+     * of a partly read token) at the front of it.
+     *
+     * @return false iff no more bytes could be read
+     */
+    private boolean fill(int keepFrom) {
+        int kept = limit - keepFrom;
+        if (kept == buffer.length) {// one token fills the whole buffer
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            if (window != null)
+                window = ByteBuffer.wrap(buffer);
+        }
+        System.arraycopy(buffer, keepFrom, buffer, 0, kept);
+        position -= keepFrom;
+        limit = kept;
+        if (endOfInput)
+            return false;
+        int read = 0;
+        if (source != null) {
+            read = Math.min(buffer.length - limit, source.remaining());
+            source.get(buffer, limit, read);
+        } else {
+            try {
+                window.clear().position(limit);
+                while (read == 0) {
+                    read = channel.read(window);
+                }
+            } catch (IOException e) {
+                throw new MyInputException(e.getMessage());
+            }
+        }
+        if (read <= 0) {
+            endOfInput = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Input an integer.
+     *
+     * @exception MyInputException
+     *                thrown if some error occurs while reading or if the
+     *                end of file is reached
+     * @exception NumberFormatException
+     *                thrown if the next token isn't an int
+     * @return next token as an integer number
+     */
+    public int readInteger() {
+        // skip to the start of the next token
+        while (true) {
+            if (position == limit && !fill(limit))
+                throw new MyInputException("End of file");
+            if (!isDelimiter(buffer[position]))
+                break;
+            position++;
+        }
+
+        // find the end of the token, keeping all of it in the buffer
+        int start = position;
+        while (true) {
+            if (position == limit) {
+                boolean more = fill(start);
+                start = 0;
+                if (!more)
+                    break;
+            }
+            if (isDelimiter(buffer[position]))
+                break;
+            position++;
+        }
+        return parseInteger(start, position);
+    }
+
+    /** @return the int in buffer[start, end), as for Integer.parseInt */
+    private int parseInteger(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (buffer[i] == '-' || buffer[i] == '+') {
+            negative = buffer[i] == '-';
+            i++;
+            if (i == end)
+                throw badToken(start, end);
+        }
+
+        // accumulate as a negative number so that Integer.MIN_VALUE fits
+        int limitValue = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multiplyLimit = limitValue / 10;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit)
+                throw badToken(start, end);
+            result *= 10;
+            if (result < limitValue + digit)
+                throw badToken(start, end);
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private NumberFormatException badToken(int start, int end) {
+        String token = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        return new NumberFormatException("For input string: \"" + token + "\"");
+    }
+}
@@ -11,7 +11,7 @@ import java.util.StringTokenizer;
 
 import exceptions.MyInputException;
 
-public class MyInputStream {
+public class MyInputStream implements IntegerInput {
     // data members
     private BufferedReader in;
     private StringTokenizer line;
@@ -0,0 +1,118 @@
+package utilities;
+
+import java.util.Arrays;
+
+/**
+ * An estimate of one quantile of a stream of values in constant memory,
+ * using the P-square algorithm of Jain and Chlamtac (Communications of
+ * the ACM 28(10), 1985). Five markers track the minimum, the quantile,
+ * the maximum and two points between; as values arrive the markers are
+ * moved towards their ideal positions and their heights adjusted with
+ * a piecewise-parabolic fit. The estimate is exact for up to five values.
+ */
+public class P2Quantile {
+    private static final int MARKERS = 5;
+
+    // data members
+    private final double p; // the quantile, in (0, 1)
+    private final double[] height = new double[MARKERS];
+    private final long[] position = new long[MARKERS]; // 1-based rank of each marker
+    private final double[] desiredPosition = new double[MARKERS];
+    private final double[] increment = new double[MARKERS]; // of desiredPosition per value
+    private long count;
+
+    public P2Quantile(double p) {
+        if (!(p > 0 && p < 1))
+            throw new IllegalArgumentException("quantile must be in (0, 1)");
+        this.p = p;
+    }
+
+    public double getP() {
+        return p;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void add(double value) {
+        if (count < MARKERS) {
+            height[(int) count++] = value;
+            if (count == MARKERS) {
+                Arrays.sort(height);
+                for (int i = 0; i < MARKERS; i++)
+                    position[i] = i + 1;
+                desiredPosition[0] = 1;
+                desiredPosition[1] = 1 + 2 * p;
+                desiredPosition[2] = 1 + 4 * p;
+                desiredPosition[3] = 3 + 2 * p;
+                desiredPosition[4] = 5;
+                increment[0] = 0;
+                increment[1] = p / 2;
+                increment[2] = p;
+                increment[3] = (1 + p) / 2;
+                increment[4] = 1;
+            }
+            return;
+        }
+        count++;
+
+        // find the cell holding value, stretching the ends if needed
+        int cell;
+        if (value < height[0]) {
+            height[0] = value;
+            cell = 0;
+        } else if (value >= height[4]) {
+            height[4] = value;
+            cell = 3;
+        } else {
+            cell = 0;
+            while (value >= height[cell + 1])
+                cell++;
+        }
+        for (int i = cell + 1; i < MARKERS; i++)
+            position[i]++;
+        for (int i = 0; i < MARKERS; i++)
+            desiredPosition[i] += increment[i];
+
+        // move the middle markers that are off by a rank or more
+        for (int i = 1; i < MARKERS - 1; i++) {
+            double offset = desiredPosition[i] - position[i];
+            if ((offset >= 1 && position[i + 1] - position[i] > 1)
+                    || (offset <= -1 && position[i - 1] - position[i] < -1)) {
+                int step = offset > 0 ? 1 : -1;
+                double estimate = parabolic(i, step);
+                if (height[i - 1] < estimate && estimate < height[i + 1])
+                    height[i] = estimate;
+                else
+                    height[i] = linear(i, step);
+                position[i] += step;
+            }
+        }
+    }
+
+    private double parabolic(int i, int step) {
+        double below = position[i] - position[i - 1];
+        double above = position[i + 1] - position[i];
+        return height[i] + step / (double) (position[i + 1] - position[i - 1])
+                * ((below + step) * (height[i + 1] - height[i]) / above
+                + (above - step) * (height[i] - height[i - 1]) / below);
+    }
+
+    private double linear(int i, int step) {
+        return height[i] + step * (height[i + step] - height[i]) / (position[i + step] - position[i]);
+    }
+
+    /** @return the estimated quantile, or NaN if there are no values */
+    public double getQuantile() {
+        if (count == 0)
+            return Double.NaN;
+        if (count <= MARKERS) {
+            double[] values = Arrays.copyOf(height, (int) count);
+            Arrays.sort(values);
+            int rank = (int) Math.ceil(p * count); // nearest rank
+            return values[Math.max(rank, 1) - 1];
+        }
+        return height[2];
+    }
+}
@@ -0,0 +1,57 @@
+package utilities;
+
+/**
+ * Count, mean, variance, minimum and maximum of a stream of values,
+ * updated one value at a time in constant memory with Welford's method,
+ * which stays accurate when the values are large and close together.
+ */
+public class RunningStatistics {
+    // data members
+    private long count;
+    private double mean;
+    private double sumOfSquaredDeviations; // from the current mean
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public void add(double value) {
+        count++;
+        double deviation = value - mean;
+        mean += deviation / count;
+        sumOfSquaredDeviations += deviation * (value - mean);
+        if (count == 1) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /** @return the mean, or NaN if there are no values */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /** @return the sample variance, or NaN if there are fewer than two values */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : sumOfSquaredDeviations / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /** @return the smallest value, or NaN if there are no values */
+    public double getMin() {
+        return min;
+    }
+
+    /** @return the largest value, or NaN if there are no values */
+    public double getMax() {
+        return max;
+    }
+}
@@ -5,6 +5,14 @@ import com.pholser.junit.quickcheck.Property;
 import com.pholser.junit.quickcheck.runner.JUnitQuickcheck;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static applications.TestResults.assertSameResults;
 import static junit.framework.TestCase.assertEquals;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
@@ -73,9 +81,8 @@ public class SimulationProperties {
         int[] expectedMachineTaskCounts = new int[numMachines+1];
 
         for (int i=1; i<=numJobs; ++i) {
-            Job job = specification.jobs[i];
-            int numTasks = job.numTasks;
-            int[] specsForTasks = job.getSpecificationsForTasks();
+            int numTasks = specification.getNumTasks(i);
+            int[] specsForTasks = specification.getSpecificationsForTasks(i);
             for (int j=1; j<=numTasks; ++j) {
                 int theMachine = specsForTasks[2*(j-1)+1];
                 ++expectedMachineTaskCounts[theMachine];
@@ -87,4 +94,93 @@ public class SimulationProperties {
             assertEquals(expectedMachineTaskCounts[i], actualMachineTasksCounts[i]);
         }
     }
+
+    @Property
+    public void concurrentRunsMatchSequentialRun(
+            @From(SimulationSpecificationGenerator.class)
+                SimulationSpecification specification)
+            throws InterruptedException, ExecutionException
+    {
+        final SimulationResults expected = MachineShopSimulator.runSimulation(specification);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<SimulationResults>> futures = new ArrayList<>();
+            for (int i=0; i<8; ++i) {
+                futures.add(pool.submit(() -> MachineShopSimulator.runSimulation(specification)));
+            }
+            for (Future<SimulationResults> future : futures) {
+                assertSameResults(expected, future.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Property
+    public void flatEngineMatchesObjectGraphEngine(
+            @From(SimulationSpecificationGenerator.class)
+                SimulationSpecification specification)
+    {
+        final SimulationResults expected = MachineShopSimulator.runSimulation(specification);
+        SimulationOptions options = new SimulationOptions();
+        options.setEngineKind(SimulationOptions.EngineKind.FLAT);
+        final SimulationResults actual = MachineShopSimulator.runSimulation(specification, options);
+
+        assertSameResults(expected, actual);
+    }
+
+    @Property
+    public void parallelEngineMatchesObjectGraphEngine(
+            @From(SimulationSpecificationGenerator.class)
+                SimulationSpecification specification)
+    {
+        final SimulationResults expected = MachineShopSimulator.runSimulation(specification);
+        for (int numThreads : new int[] {1, 2, 3, 8}) {
+            SimulationOptions options = new SimulationOptions();
+            options.setEngineKind(SimulationOptions.EngineKind.PARALLEL);
+            options.setNumThreads(numThreads);
+            final SimulationResults actual = MachineShopSimulator.runSimulation(specification, options);
+
+            assertSameResults(expected, actual);
+        }
+    }
+
+    @Property
+    public void releasedJobsWaitTimesShouldMatch(
+            @From(SimulationSpecificationGenerator.class)
+                SimulationSpecification specification)
+    {
+        // release job i at time 3*(i-1), so later jobs may find the shop busy or idle
+        for (int i=1; i<=specification.getNumJobs(); ++i) {
+            specification.setReleaseTime(i, 3*(i-1));
+        }
+        final SimulationResults results = MachineShopSimulator.runSimulation(specification);
+
+        int totalMachineWaitTime = 0;
+        for (int waitTime : results.getTotalWaitTimePerMachine()) {
+            totalMachineWaitTime += waitTime;
+        }
+        int totalJobWaitTime = 0;
+        for (Job job : results.getJobs()) {
+            assertThat(job.totalWaitTime, greaterThanOrEqualTo(0));
+            assertThat(job.completionTime, greaterThanOrEqualTo(specification.getReleaseTime(job.getId())));
+            totalJobWaitTime += job.totalWaitTime;
+        }
+        assertEquals(specification.getNumJobs(), results.getJobs().length);
+        assertEquals(totalJobWaitTime, totalMachineWaitTime);
+    }
+
+    @Property
+    public void jobsReleasedAtTimeZeroMatchStartingInTheShop(
+            @From(SimulationSpecificationGenerator.class)
+                SimulationSpecification specification)
+    {
+        final SimulationResults expected = MachineShopSimulator.runSimulation(specification);
+        SimulationResults actual = new SimulationResults(0);
+        MachineShopSimulator.runSimulation(specification, new SpecificationJobSource(specification),
+                new SimulationOptions(), actual);
+
+        assertSameResults(expected, actual);
+    }
 }
@@ -48,10 +48,8 @@ public class SimulationSpecificationGenerator extends Generator<SimulationSpecif
         for (int i=1; i<=numJobs; ++i) {
             jobs[i] = new Job(i);
         }
-        result.jobs = jobs;
         for (int i=1; i<=numJobs; ++i) {
             int numTasks = r.nextInt(MAX_TASKS) + 1;
-            jobs[i].numTasks = numTasks;
 
             int[] specificationsForTasks = new int[2 * numTasks + 1];
 
@@ -61,8 +59,9 @@ public class SimulationSpecificationGenerator extends Generator<SimulationSpecif
                 specificationsForTasks[2 * (j - 1) + 1] = theMachine;
                 specificationsForTasks[2 * (j - 1) + 2] = theTaskTime;
             }
-            result.setSpecificationsForTasks(i, specificationsForTasks);
+            jobs[i].setSpecificationsForTasks(specificationsForTasks);
         }
+        result.setJobs(jobs);
 
         return result;
     }
@@ -114,9 +113,8 @@ public class SimulationSpecificationGenerator extends Generator<SimulationSpecif
 
         Job[] jobs = new Job[numJobs+1];
         for (int i=1; i<=numJobs; ++i) {
-            Job job = spec.jobs[i];
-            int numTasks = job.numTasks;
-            int[] specsForTasks = job.getSpecificationsForTasks();
+            int numTasks = spec.getNumTasks(i);
+            int[] specsForTasks = spec.getSpecificationsForTasks(i);
             int numTasksOnThisMachine = 0;
             for (int j=1; j<=numTasks; ++j) {
                 if (specsForTasks[2*(j-1)+1] == machineToRemove) {
@@ -145,11 +143,10 @@ public class SimulationSpecificationGenerator extends Generator<SimulationSpecif
                 }
             }
             Job newJobSpec = new Job(i);
-            newJobSpec.numTasks = newNumTasks;
             newJobSpec.setSpecificationsForTasks(newSpecsForTasks);
             jobs[i] = newJobSpec;
         }
-        smallerSpec.jobs = jobs;
+        smallerSpec.setJobs(jobs);
 
         return smallerSpec;
     }
@@ -175,11 +172,12 @@ public class SimulationSpecificationGenerator extends Generator<SimulationSpecif
         Job[] newJobs = new Job[originalNumJobs];
         for (int i=1, j=1; i<=originalNumJobs; ++i) {
             if (i != jobToRemove) {
-                newJobs[j] = spec.jobs[i];
+                newJobs[j] = new Job(j);
+                newJobs[j].setSpecificationsForTasks(spec.getSpecificationsForTasks(i));
                 ++j;
             }
         }
-        smallerSpec.jobs = newJobs;
+        smallerSpec.setJobs(newJobs);
 
         return smallerSpec;
     }
@@ -188,9 +186,7 @@ public class SimulationSpecificationGenerator extends Generator<SimulationSpecif
         SimulationSpecification simulationSpecification = (SimulationSpecification) value;
         int size = simulationSpecification.getNumMachines();
         size += simulationSpecification.getNumJobs();
-        for (int i=1; i<=simulationSpecification.getNumJobs(); ++i) {
-            size += simulationSpecification.jobs[i].numTasks;
-        }
+        size += simulationSpecification.getTotalTasks();
 
         return BigDecimal.valueOf(size);
     }
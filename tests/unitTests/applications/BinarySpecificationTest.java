@@ -0,0 +1,106 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import exceptions.MyInputException;
+
+public class BinarySpecificationTest {
+
+    private static byte[] toBytes(SimulationSpecification specification) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinarySpecification.write(specification, bytes);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void readGivesBackWhatWasWritten() throws IOException {
+        SimulationSpecification specification = TestShops.shop(12, 80, 8);
+        SimulationSpecification read = BinarySpecification.read(ByteBuffer.wrap(toBytes(specification)));
+        assertEquals(specification.toString(), read.toString());
+    }
+
+    @Test
+    public void fileRoundTripKeepsReleaseTimes() throws IOException {
+        SimulationSpecification specification = TestShops.shop(12, 80, 8);
+        for (int i = 1; i <= specification.getNumJobs(); i++)
+            specification.setReleaseTime(i, 3 * i);
+        Path file = Files.createTempFile("specification", ".bin");
+        try {
+            BinarySpecification.write(specification, file);
+            SimulationSpecification read = BinarySpecification.read(file);
+            assertEquals(specification.toString(), read.toString());
+            assertEquals(MachineShopSimulator.runSimulation(specification).getFinishTime(),
+                    MachineShopSimulator.runSimulation(read).getFinishTime());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void dueDatesSurviveAndKeepEddResults() throws IOException {
+        SimulationSpecification specification = TestShops.shop(12, 80, 8);
+        for (int i = 1; i <= specification.getNumJobs(); i++)
+            specification.setDueDate(i, 1000 - 7 * i);
+        SimulationSpecification read = BinarySpecification.read(ByteBuffer.wrap(toBytes(specification)));
+        assertEquals(specification.toString(), read.toString());
+        SimulationOptions options = new SimulationOptions();
+        options.setDispatchPolicy(DispatchPolicy.EDD);
+        assertEquals(MachineShopSimulator.runSimulation(specification, options).getFinishTime(),
+                MachineShopSimulator.runSimulation(read, options).getFinishTime());
+    }
+
+    @Test
+    public void versionOneFilesCanStillBeRead() throws IOException {
+        SimulationSpecification specification = TestShops.shop(12, 80, 8);
+        ByteBuffer buffer = ByteBuffer.wrap(toBytes(specification));
+        buffer.putInt(4, 1);
+        assertEquals(specification.toString(), BinarySpecification.read(buffer).toString());
+    }
+
+    @Test
+    public void wideMachineNumbersAndTaskTimesSurvive() throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator(300, 20);
+        generator.setTaskTime(IntDistribution.uniform(1, 100000));
+        SimulationSpecification specification = generator.generate();
+        SimulationSpecification read = BinarySpecification.read(ByteBuffer.wrap(toBytes(specification)));
+        assertEquals(specification.toString(), read.toString());
+    }
+
+    @Test(expected = MyInputException.class)
+    public void textIsNotABinarySpecification() {
+        BinarySpecification.read(ByteBuffer.wrap("1 1\n0\n1\n1 1\n".getBytes()));
+    }
+
+    @Test(expected = MyInputException.class)
+    public void truncatedFileIsRejected() throws IOException {
+        byte[] bytes = toBytes(TestShops.shop(12, 80, 8));
+        BinarySpecification.read(ByteBuffer.wrap(bytes, 0, bytes.length - 4));
+    }
+
+    @Test(expected = MyInputException.class)
+    public void headerWhoseSizesWrapAroundIsRejected() {
+        // 1 machine and 2^31 - 1 jobs with release times make 2^32 table
+        // entries, which is 0 in int arithmetic
+        ByteBuffer buffer = ByteBuffer.allocate(4 * 8 + 8);
+        buffer.putInt(BinarySpecification.MAGIC).putInt(BinarySpecification.VERSION)
+                .putInt(BinarySpecification.HAS_RELEASE_TIMES).putInt(1).putInt(Integer.MAX_VALUE)
+                .putInt(4).putInt(1).putInt(1);
+        buffer.rewind();
+        BinarySpecification.read(buffer);
+    }
+
+    @Test(expected = MyInputException.class)
+    public void badMachineNumberIsRejected() throws IOException {
+        SimulationSpecification specification = TestShops.shop(12, 80, 8);
+        specification.getTaskMachines()[specification.getFirstTask(5)] = 13;
+        BinarySpecification.read(ByteBuffer.wrap(toBytes(specification)));
+    }
+}
@@ -0,0 +1,94 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class DispatchPolicyTest {
+
+    /**
+     * One machine with no change-over time and three jobs queued at it
+     * in order: job 1 has tasks of 1 and 6, job 2 one task of 3 and
+     * job 3 one task of 2, with due dates 5, 9 and 7.
+     */
+    private static SimulationSpecification oneMachineShop() {
+        SimulationSpecification specification = new SimulationSpecification();
+        specification.setNumMachines(1);
+        specification.setNumJobs(3);
+        specification.setChangeOverTimes(new int[] {0, 0});
+        int[][] tasks = {null, {0, 1, 1, 1, 6}, {0, 1, 3}, {0, 1, 2}};
+        Job[] jobs = new Job[4];
+        for (int i = 1; i <= 3; i++) {
+            jobs[i] = new Job(i);
+            jobs[i].setSpecificationsForTasks(tasks[i]);
+        }
+        specification.setJobs(jobs);
+        specification.setDueDate(1, 5);
+        specification.setDueDate(2, 9);
+        specification.setDueDate(3, 7);
+        return specification;
+    }
+
+    /** @return the completion times of the jobs, indexed by job number */
+    private static int[] completionTimes(SimulationSpecification specification, DispatchPolicy policy) {
+        SimulationOptions options = new SimulationOptions();
+        options.setDispatchPolicy(policy);
+        int[] completionTimes = new int[specification.getNumJobs() + 1];
+        for (Job job : MachineShopSimulator.runSimulation(specification, options).getJobs())
+            completionTimes[job.getId()] = job.completionTime;
+        return completionTimes;
+    }
+
+    @Test
+    public void eachPolicyPicksItsJob() {
+        SimulationSpecification specification = oneMachineShop();
+        // 1, 2, 3, then the rest of 1
+        assertArrayEquals(new int[] {0, 12, 4, 6}, completionTimes(specification, DispatchPolicy.FIFO));
+        // 1 (task of 1), 3 (2), 2 (3), 1 (6)
+        assertArrayEquals(new int[] {0, 12, 6, 3}, completionTimes(specification, DispatchPolicy.SPT));
+        // 3 (2 left), 2 (3 left), 1 (7 left)
+        assertArrayEquals(new int[] {0, 12, 5, 2}, completionTimes(specification, DispatchPolicy.LRW));
+        // 1 (due 5) twice, 3 (due 7), 2 (due 9)
+        assertArrayEquals(new int[] {0, 7, 12, 9}, completionTimes(specification, DispatchPolicy.EDD));
+    }
+
+    @Test
+    public void jobsWithoutDueDatesGoLast() {
+        SimulationSpecification specification = oneMachineShop();
+        specification.setDueDate(1, 0);
+        // 3 (due 7), 2 (due 9), then both tasks of 1
+        assertArrayEquals(new int[] {0, 12, 5, 2}, completionTimes(specification, DispatchPolicy.EDD));
+    }
+
+    @Test
+    public void fifoMatchesDefaultOptions() {
+        SimulationSpecification specification = TestShops.shop(6, 200, 16);
+        SimulationOptions options = new SimulationOptions();
+        options.setDispatchPolicy(DispatchPolicy.FIFO);
+        StringWriter expected = new StringWriter();
+        MachineShopSimulator.runSimulation(specification, new SimulationOptions(), new TextResultSink(expected));
+        StringWriter actual = new StringWriter();
+        MachineShopSimulator.runSimulation(specification, options, new TextResultSink(actual));
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    public void policiesAccountForEveryTask() {
+        SimulationSpecification specification = TestShops.shop(6, 200, 17);
+        for (DispatchPolicy policy : DispatchPolicy.values()) {
+            SimulationOptions options = new SimulationOptions();
+            options.setDispatchPolicy(policy);
+            SimulationResults results = MachineShopSimulator.runSimulation(specification, options);
+            int totalJobWait = 0;
+            for (Job job : results.getJobs())
+                totalJobWait += job.totalWaitTime;
+            int totalMachineWait = 0;
+            for (int wait : results.getTotalWaitTimePerMachine())
+                totalMachineWait += wait;
+            assertEquals(policy.toString(), specification.getNumJobs(), results.getJobs().length);
+            assertEquals(policy.toString(), totalJobWait, totalMachineWait);
+        }
+    }
+}
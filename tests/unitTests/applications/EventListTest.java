@@ -0,0 +1,55 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class EventListTest {
+
+    private static final int LARGE_TIME = Integer.MAX_VALUE;
+
+    @Test
+    public void idleShopReportsFirstMachine() {
+        EventList scan = new EventList(5, LARGE_TIME, false);
+        EventList heap = new EventList(5, LARGE_TIME, true);
+        assertEquals(1, scan.nextEventMachine());
+        assertEquals(1, heap.nextEventMachine());
+        assertEquals(LARGE_TIME, heap.nextEventTime(3));
+    }
+
+    @Test
+    public void tiesGoToLowestMachine() {
+        EventList heap = new EventList(6, LARGE_TIME, true);
+        heap.setFinishTime(5, 10);
+        heap.setFinishTime(3, 10);
+        heap.setFinishTime(6, 10);
+        assertEquals(3, heap.nextEventMachine());
+        heap.setFinishTime(3, 12);
+        assertEquals(5, heap.nextEventMachine());
+        heap.setFinishTime(1, 10);
+        assertEquals(1, heap.nextEventMachine());
+    }
+
+    /**
+     * Apply the same random sequence of updates to a scanning and
+     * a heap-backed event list and check they always agree.
+     */
+    @Test
+    public void heapMatchesScan() {
+        Random random = new Random(4659);
+        for (int numMachines = 1; numMachines <= 40; ++numMachines) {
+            EventList scan = new EventList(numMachines, LARGE_TIME, false);
+            EventList heap = new EventList(numMachines, LARGE_TIME, true);
+            for (int i = 0; i < 500; ++i) {
+                int theMachine = random.nextInt(numMachines) + 1;
+                int theTime = random.nextInt(4) == 0 ? LARGE_TIME : random.nextInt(20);
+                scan.setFinishTime(theMachine, theTime);
+                heap.setFinishTime(theMachine, theTime);
+                assertEquals(scan.nextEventMachine(), heap.nextEventMachine());
+                assertEquals(scan.nextEventTime(theMachine), heap.nextEventTime(theMachine));
+            }
+        }
+    }
+}
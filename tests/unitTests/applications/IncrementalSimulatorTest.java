@@ -0,0 +1,123 @@
+package applications;
+
+import static applications.TestResults.assertSameResults;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IncrementalSimulatorTest {
+
+    /** @return a copy of specification, sharing nothing with it */
+    private static SimulationSpecification copy(SimulationSpecification specification) {
+        SimulationSpecification copy = new SimulationSpecification();
+        copy.setNumMachines(specification.getNumMachines());
+        copy.setNumJobs(specification.getNumJobs());
+        int[] changeOverTimes = new int[specification.getNumMachines() + 1];
+        for (int p = 1; p <= specification.getNumMachines(); p++)
+            changeOverTimes[p] = specification.getChangeOverTimes(p);
+        copy.setChangeOverTimes(changeOverTimes);
+        int[] firstTask = new int[specification.getNumJobs() + 2];
+        for (int i = 1; i <= specification.getNumJobs() + 1; i++)
+            firstTask[i] = specification.getFirstTask(i);
+        int[] machines = new int[specification.getTotalTasks()];
+        int[] times = new int[specification.getTotalTasks()];
+        for (int k = 0; k < machines.length; k++) {
+            machines[k] = specification.getTaskMachine(k);
+            times[k] = specification.getTaskTime(k);
+        }
+        copy.setTasks(firstTask, machines, times);
+        for (int i = 1; i <= specification.getNumJobs(); i++) {
+            copy.setReleaseTime(i, specification.getReleaseTime(i));
+            copy.setDueDate(i, specification.getDueDate(i));
+        }
+        return copy;
+    }
+
+    /** @return a copy of specification with one of job i's tasks changed */
+    private static SimulationSpecification withTask(SimulationSpecification specification,
+                                                    int i, int task, int machine, int time) {
+        SimulationSpecification edited = copy(specification);
+        int[] firstTask = new int[specification.getNumJobs() + 2];
+        int[] machines = new int[specification.getTotalTasks()];
+        int[] times = new int[specification.getTotalTasks()];
+        for (int j = 1; j <= specification.getNumJobs() + 1; j++)
+            firstTask[j] = specification.getFirstTask(j);
+        for (int k = 0; k < machines.length; k++) {
+            machines[k] = specification.getTaskMachine(k);
+            times[k] = specification.getTaskTime(k);
+        }
+        machines[firstTask[i] + task] = machine;
+        times[firstTask[i] + task] = time;
+        edited.setTasks(firstTask, machines, times);
+        for (int j = 1; j <= specification.getNumJobs(); j++) {
+            edited.setReleaseTime(j, specification.getReleaseTime(j));
+            edited.setDueDate(j, specification.getDueDate(j));
+        }
+        return edited;
+    }
+
+    @Test
+    public void lateEditResumesPartWay() {
+        SimulationSpecification shop = TestShops.shop(6, 300, 1);
+        IncrementalSimulator simulator = new IncrementalSimulator(new SimulationOptions(), 50);
+        assertSameResults(MachineShopSimulator.runSimulation(shop), simulator.run(shop));
+        assertEquals(0, simulator.getResumeTime());
+
+        // a job's last task changes nothing until the job gets there
+        int i = shop.getNumJobs();
+        int last = shop.getFirstTask(i + 1) - 1;
+        SimulationSpecification edited = withTask(shop, i, shop.getNumTasks(i) - 1, shop.getTaskMachine(last), 99);
+        assertSameResults(MachineShopSimulator.runSimulation(edited), simulator.run(edited));
+        assertTrue(simulator.getResumeTime() > 0);
+
+        SimulationSpecification unchanged = copy(edited);
+        assertSameResults(MachineShopSimulator.runSimulation(unchanged), simulator.run(unchanged));
+        assertTrue(simulator.getResumeTime() > 0);
+    }
+
+    @Test
+    public void randomEditsMatchFullRuns() {
+        Random random = new Random(3);
+        for (DispatchPolicy policy : DispatchPolicy.values()) {
+            SimulationOptions options = new SimulationOptions();
+            options.setDispatchPolicy(policy);
+            IncrementalSimulator simulator = new IncrementalSimulator(options, 1 + random.nextInt(40));
+            SimulationSpecification shop = TestShops.shop(6, 300, policy.ordinal());
+            if (policy == DispatchPolicy.EDD || policy == DispatchPolicy.LRW) {
+                for (int i = 1; i <= shop.getNumJobs(); i++) {
+                    shop.setReleaseTime(i, random.nextInt(200));
+                    shop.setDueDate(i, random.nextInt(2000));
+                }
+            }
+            simulator.run(shop);
+            for (int edit = 0; edit < 20; edit++) {
+                SimulationSpecification edited;
+                if (random.nextBoolean()) {
+                    edited = copy(shop);
+                    int[] changeOverTimes = new int[shop.getNumMachines() + 1];
+                    for (int p = 1; p <= shop.getNumMachines(); p++)
+                        changeOverTimes[p] = shop.getChangeOverTimes(p);
+                    changeOverTimes[1 + random.nextInt(shop.getNumMachines())] = random.nextInt(10);
+                    edited.setChangeOverTimes(changeOverTimes);
+                } else {
+                    int i = 1 + random.nextInt(shop.getNumJobs());
+                    edited = withTask(shop, i, random.nextInt(shop.getNumTasks(i)),
+                            1 + random.nextInt(shop.getNumMachines()), 1 + random.nextInt(20));
+                    if (random.nextBoolean())
+                        edited.setDueDate(i, random.nextInt(2000));
+                }
+                assertSameResults(MachineShopSimulator.runSimulation(edited, options), simulator.run(edited));
+                shop = edited;
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stochasticRunsAreRejected() {
+        SimulationOptions options = new SimulationOptions();
+        options.setTaskTimeDistributions(new TaskTimeDistribution[7], 1);
+        new IncrementalSimulator(options, 100);
+    }
+}
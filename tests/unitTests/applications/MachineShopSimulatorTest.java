@@ -0,0 +1,74 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MachineShopSimulatorTest {
+
+    private Path input;
+    private Path output;
+
+    @Before
+    public void createFiles() throws IOException {
+        input = Files.createTempFile("specification", ".input");
+        output = Files.createTempFile("results", ".output");
+    }
+
+    @After
+    public void deleteFiles() throws IOException {
+        Files.delete(input);
+        Files.delete(output);
+    }
+
+    private static WorkloadGenerator generator() {
+        WorkloadGenerator generator = new WorkloadGenerator(6, 40);
+        generator.setSeed(4);
+        return generator;
+    }
+
+    private static String expectedOutput(SimulationSpecification specification, boolean summaryOnly) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TextResultSink sink = new TextResultSink(out);
+        sink.setSummaryOnly(summaryOnly);
+        MachineShopSimulator.runSimulation(specification, new SimulationOptions(), sink);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String actualOutput() throws IOException {
+        return new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void batchRunWritesResultsWithoutPrompts() throws IOException {
+        SimulationSpecification specification = generator().generate();
+        generator().write(input);
+        MachineShopSimulator.main(new String[] {input.toString(), output.toString()});
+        assertEquals(expectedOutput(specification, false), actualOutput());
+    }
+
+    @Test
+    public void summaryOnlyLeavesOutTheJobs() throws IOException {
+        SimulationSpecification specification = generator().generate();
+        generator().write(input);
+        MachineShopSimulator.main(new String[] {"--summary-only", input.toString(), output.toString()});
+        assertEquals(expectedOutput(specification, true), actualOutput());
+        assertFalse(actualOutput().contains("Job "));
+    }
+
+    @Test
+    public void binaryInputIsRecognized() throws IOException {
+        SimulationSpecification specification = generator().generate();
+        BinarySpecification.write(specification, input);
+        MachineShopSimulator.main(new String[] {input.toString(), output.toString()});
+        assertEquals(expectedOutput(specification, false), actualOutput());
+    }
+}
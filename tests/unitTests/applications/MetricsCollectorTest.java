@@ -0,0 +1,84 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class MetricsCollectorTest {
+
+    @Test
+    public void waitHistogramCountsEveryTask() {
+        SimulationSpecification specification = TestShops.shop(6, 40, 11, 1);
+        MetricsCollector metrics = new MetricsCollector();
+        SimulationOptions options = new SimulationOptions();
+        options.setListener(metrics);
+        SimulationResults results = MachineShopSimulator.runSimulation(specification, options);
+
+        assertEquals(results.getFinishTime(), metrics.getFinishTime());
+        int[] numTasksPerMachine = results.getNumTasksPerMachine();
+        long totalTasks = 0;
+        for (int p = 1; p <= 6; p++) {
+            long counted = 0;
+            for (long count : metrics.getWaitHistogram(p))
+                counted += count;
+            assertEquals(numTasksPerMachine[p], counted);
+            totalTasks += counted;
+            assertTrue(metrics.getMaxQueueLength(p) >= 1 || numTasksPerMachine[p] == 0);
+        }
+        // each task starts once and finishes once
+        assertTrue(metrics.getNumEvents() >= 2 * totalTasks);
+        assertTrue(metrics.getEventsPerSecond() > 0);
+
+        StringWriter report = new StringWriter();
+        metrics.write(report);
+        assertTrue(report.toString().startsWith("Events = " + metrics.getNumEvents()));
+    }
+
+    @Test
+    public void listenerDoesNotChangeResults() {
+        SimulationSpecification specification = TestShops.shop(6, 40, 11, 1);
+        SimulationResults expected = MachineShopSimulator.runSimulation(specification);
+        SimulationOptions options = new SimulationOptions();
+        options.setEngineKind(SimulationOptions.EngineKind.FLAT);
+        options.setListener(new MetricsCollector());
+        SimulationResults actual = MachineShopSimulator.runSimulation(specification, options);
+        assertEquals(expected.getFinishTime(), actual.getFinishTime());
+        assertArrayEquals(expected.getTotalWaitTimePerMachine(), actual.getTotalWaitTimePerMachine());
+    }
+
+    @Test
+    public void queueLengthsAreReportedOnArrival() {
+        // two jobs, both starting on machine 1, then both moving to machine 2
+        SimulationSpecification specification = new SimulationSpecification();
+        specification.setNumMachines(2);
+        specification.setNumJobs(2);
+        specification.setChangeOverTimes(new int[] {0, 0, 0});
+        Job[] jobs = new Job[3];
+        for (int i = 1; i <= 2; i++) {
+            jobs[i] = new Job(i);
+            jobs[i].setSpecificationsForTasks(new int[] {0, 1, 5, 2, 100});
+        }
+        specification.setJobs(jobs);
+        MetricsCollector metrics = new MetricsCollector();
+        SimulationOptions options = new SimulationOptions();
+        options.setListener(metrics);
+        MachineShopSimulator.runSimulation(specification, options);
+
+        assertEquals(1, metrics.getMaxQueueLength(2));
+        long[] waitsAtMachine2 = metrics.getWaitHistogram(2);
+        assertEquals(1, waitsAtMachine2[0]);
+        // job 2 reaches machine 2 at 10 and waits until job 1 is done at 105
+        assertEquals(1, waitsAtMachine2[MetricsCollector.bucketOf(95)]);
+    }
+
+    @Test
+    public void bucketsArePowersOfTwo() {
+        assertEquals(0, MetricsCollector.bucketOf(0));
+        assertEquals(1, MetricsCollector.bucketOf(1));
+        assertEquals(2, MetricsCollector.bucketOf(3));
+        assertEquals(3, MetricsCollector.bucketOf(4));
+        assertEquals(4, MetricsCollector.bucketLowerBound(MetricsCollector.bucketOf(7)));
+    }
+}
@@ -0,0 +1,72 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ParallelSimulationEngineTest {
+
+    private static String run(SimulationSpecification specification, SimulationOptions options) {
+        StringWriter out = new StringWriter();
+        MachineShopSimulator.runSimulation(specification, options, new TextResultSink(out));
+        return out.toString();
+    }
+
+    @Test
+    public void everyThreadCountMatchesSequentialEngine() {
+        SimulationSpecification specification = TestShops.shop(13, 400, 15, 0.5);
+        String expected = run(specification, new SimulationOptions());
+        for (int numThreads = 1; numThreads <= 16; numThreads++) {
+            SimulationOptions options = new SimulationOptions();
+            options.setEngineKind(SimulationOptions.EngineKind.PARALLEL);
+            options.setNumThreads(numThreads);
+            assertEquals("threads: " + numThreads, expected, run(specification, options));
+        }
+    }
+
+    @Test
+    public void sinkFailureIsRethrownAfterThePartitionsStop() throws InterruptedException {
+        List<Throwable> uncaught = Collections.synchronizedList(new ArrayList<>());
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> uncaught.add(e));
+        try {
+            // any of the threads may be the one to trip the failing barrier
+            for (int attempt = 0; attempt < 20; attempt++) {
+                ParallelSimulationEngine engine = new ParallelSimulationEngine(TestShops.shop(13, 400, 15, 0.5), 4);
+                try {
+                    engine.run(new TextResultSink(new StringWriter()) {
+                        @Override
+                        public void jobCompleted(int jobId, int completionTime, int totalWaitTime) {
+                            throw new IllegalStateException("sink failed");
+                        }
+                    });
+                    fail("expected the sink's exception");
+                } catch (IllegalStateException e) {
+                    assertEquals("sink failed", e.getMessage());
+                }
+                for (Thread thread : Thread.getAllStackTraces().keySet())
+                    assertFalse(thread.getName().startsWith("simulation partition"));
+            }
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+        assertEquals(Collections.emptyList(), uncaught);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void releaseTimesAreRejected() {
+        SimulationSpecification specification = TestShops.shop(13, 400, 15, 0.5);
+        specification.setReleaseTime(1, 5);
+        new ParallelSimulationEngine(specification, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void threadCountMustBePositive() {
+        new SimulationOptions().setNumThreads(0);
+    }
+}
@@ -0,0 +1,98 @@
+package applications;
+
+import static applications.TestResults.assertSameResults;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResultCacheTest {
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("results");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void equalSpecificationsHit() throws IOException {
+        ResultCache cache = new ResultCache(10000, null);
+        SimulationResults first = cache.runSimulation(TestShops.shop(4, 40, 1));
+        SimulationResults second = cache.runSimulation(TestShops.shop(4, 40, 1));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertSameResults(MachineShopSimulator.runSimulation(TestShops.shop(4, 40, 1)), second);
+        assertSameResults(first, second);
+
+        cache.runSimulation(TestShops.shop(4, 40, 2));
+        SimulationOptions options = new SimulationOptions();
+        options.setDispatchPolicy(DispatchPolicy.SPT);
+        assertSameResults(MachineShopSimulator.runSimulation(TestShops.shop(4, 40, 1), options),
+                cache.runSimulation(TestShops.shop(4, 40, 1), options));
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsAreDropped() throws IOException {
+        int size = MachineShopSimulator.runSimulation(TestShops.shop(4, 40, 1)).getNumCompletedJobs() + 5;
+        ResultCache cache = new ResultCache(2 * size, null);
+        cache.runSimulation(TestShops.shop(4, 40, 1));
+        cache.runSimulation(TestShops.shop(4, 40, 2));
+        cache.runSimulation(TestShops.shop(4, 40, 1));
+        cache.runSimulation(TestShops.shop(4, 40, 3)); // drops the shop of seed 2
+        assertEquals(2, cache.getNumEntries());
+        cache.runSimulation(TestShops.shop(4, 40, 1));
+        assertEquals(2, cache.getHits());
+        cache.runSimulation(TestShops.shop(4, 40, 2));
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void resultsOutliveTheCache() throws IOException {
+        SimulationResults expected = new ResultCache(0, directory).runSimulation(TestShops.shop(4, 40, 5));
+        ResultCache cache = new ResultCache(0, directory);
+        assertSameResults(expected, cache.runSimulation(TestShops.shop(4, 40, 5)));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertEquals(0, cache.getNumEntries());
+    }
+
+    @Test
+    public void damagedFilesAreSimulatedAgain() throws IOException {
+        new ResultCache(0, directory).runSimulation(TestShops.shop(4, 40, 6));
+        try (Stream<Path> files = Files.list(directory)) {
+            Path file = files.findFirst().get();
+            Files.write(file, new byte[] {1, 2, 3});
+        }
+        ResultCache cache = new ResultCache(0, directory);
+        assertSameResults(MachineShopSimulator.runSimulation(TestShops.shop(4, 40, 6)),
+                cache.runSimulation(TestShops.shop(4, 40, 6)));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void runsWithListenersAreNotCached() throws IOException {
+        ResultCache cache = new ResultCache(10000, null);
+        SimulationOptions options = new SimulationOptions();
+        options.setListener(new SimulationListener() {
+        });
+        cache.runSimulation(TestShops.shop(4, 40, 1), options);
+        cache.runSimulation(TestShops.shop(4, 40, 1), options);
+        assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+}
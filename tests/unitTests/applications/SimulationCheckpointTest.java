@@ -0,0 +1,159 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.MyInputException;
+
+public class SimulationCheckpointTest {
+
+    private Path checkpointFile;
+
+    @Before
+    public void createCheckpointFile() throws IOException {
+        checkpointFile = Files.createTempFile("simulation", ".checkpoint");
+    }
+
+    @After
+    public void deleteCheckpointFile() throws IOException {
+        Files.deleteIfExists(checkpointFile);
+    }
+
+    /** a sink that dies, like a crashed process, after some jobs complete */
+    private static class CrashingSink extends TextResultSink {
+        private int jobsLeft;
+
+        CrashingSink(StringWriter out, int jobsLeft) {
+            super(out);
+            this.jobsLeft = jobsLeft;
+        }
+
+        @Override
+        public void jobCompleted(int jobId, int completionTime, int totalWaitTime) {
+            if (jobsLeft-- == 0)
+                throw new IllegalStateException("crash");
+            super.jobCompleted(jobId, completionTime, totalWaitTime);
+        }
+    }
+
+    private String uninterruptedRun(SimulationSpecification specification) {
+        StringWriter expected = new StringWriter();
+        MachineShopSimulator.runSimulation(specification, new SimulationOptions(), new TextResultSink(expected));
+        return expected.toString();
+    }
+
+    private void crash(SimulationSpecification specification, SimulationOptions options, int jobs) {
+        try {
+            MachineShopSimulator.runSimulation(specification, options, new CrashingSink(new StringWriter(), jobs));
+            fail("expected the run to crash");
+        } catch (IllegalStateException e) {
+            assertEquals("crash", e.getMessage());
+        }
+    }
+
+    @Test
+    public void resumedRunMatchesUninterruptedRun() throws IOException {
+        SimulationSpecification specification = TestShops.shop(8, 60, 21, 0.8);
+        SimulationOptions options = new SimulationOptions();
+        options.setCheckpoint(checkpointFile, 37);
+        crash(specification, options, 30);
+
+        StringWriter resumed = new StringWriter();
+        MachineShopSimulator.resumeSimulation(specification, new SimulationOptions(), checkpointFile,
+                new TextResultSink(resumed));
+        assertEquals(uninterruptedRun(specification), resumed.toString());
+    }
+
+    @Test
+    public void resumedRunCanCrashAndResumeAgain() throws IOException {
+        SimulationSpecification specification = TestShops.shop(8, 60, 21, 0.8);
+        SimulationOptions options = new SimulationOptions();
+        options.setQueueKind(SimulationOptions.QueueKind.ARRAY);
+        options.setCheckpoint(checkpointFile, 11);
+        crash(specification, options, 15);
+        try {
+            MachineShopSimulator.resumeSimulation(specification, options, checkpointFile,
+                    new CrashingSink(new StringWriter(), 40));
+            fail("expected the resumed run to crash");
+        } catch (IllegalStateException e) {
+            assertEquals("crash", e.getMessage());
+        }
+
+        StringWriter resumed = new StringWriter();
+        MachineShopSimulator.resumeSimulation(specification, options, checkpointFile,
+                new TextResultSink(resumed));
+        assertEquals(uninterruptedRun(specification), resumed.toString());
+    }
+
+    @Test
+    public void resumeWorksWithReleaseTimes() throws IOException {
+        SimulationSpecification specification = TestShops.shop(8, 60, 21, 0.8);
+        for (int i = 1; i <= specification.getNumJobs(); i++)
+            specification.setReleaseTime(i, (i * 7) % 50);
+        SimulationOptions options = new SimulationOptions();
+        options.setCheckpoint(checkpointFile, 25);
+        crash(specification, options, 20);
+
+        StringWriter resumed = new StringWriter();
+        MachineShopSimulator.resumeSimulation(specification, new SimulationOptions(), checkpointFile,
+                new TextResultSink(resumed));
+        assertEquals(uninterruptedRun(specification), resumed.toString());
+    }
+
+    @Test
+    public void resumeKeepsDispatchPolicyOrder() throws IOException {
+        SimulationSpecification specification = TestShops.shop(8, 60, 21, 0.8);
+        SimulationOptions options = new SimulationOptions();
+        options.setDispatchPolicy(DispatchPolicy.SPT);
+        StringWriter expected = new StringWriter();
+        MachineShopSimulator.runSimulation(specification, options, new TextResultSink(expected));
+        options.setCheckpoint(checkpointFile, 19);
+        crash(specification, options, 25);
+
+        StringWriter resumed = new StringWriter();
+        SimulationOptions resumeOptions = new SimulationOptions();
+        resumeOptions.setDispatchPolicy(DispatchPolicy.SPT);
+        MachineShopSimulator.resumeSimulation(specification, resumeOptions, checkpointFile,
+                new TextResultSink(resumed));
+        assertEquals(expected.toString(), resumed.toString());
+    }
+
+    @Test(expected = MyInputException.class)
+    public void checkpointForAnotherDispatchPolicyIsRejected() throws IOException {
+        SimulationSpecification specification = TestShops.shop(8, 60, 21, 0.8);
+        SimulationOptions options = new SimulationOptions();
+        options.setDispatchPolicy(DispatchPolicy.LRW);
+        options.setCheckpoint(checkpointFile, 10);
+        crash(specification, options, 5);
+
+        MachineShopSimulator.resumeSimulation(specification, new SimulationOptions(), checkpointFile,
+                new SimulationResults(0));
+    }
+
+    @Test(expected = MyInputException.class)
+    public void checkpointForAnotherSpecificationIsRejected() throws IOException {
+        SimulationSpecification specification = TestShops.shop(8, 60, 21, 0.8);
+        SimulationOptions options = new SimulationOptions();
+        options.setCheckpoint(checkpointFile, 10);
+        crash(specification, options, 5);
+
+        SimulationSpecification other = ParameterSweep.changeOverTime(1, 99).apply(specification);
+        MachineShopSimulator.resumeSimulation(other, new SimulationOptions(), checkpointFile,
+                new SimulationResults(0));
+    }
+
+    @Test(expected = MyInputException.class)
+    public void otherFilesAreRejected() throws IOException {
+        Files.write(checkpointFile, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        MachineShopSimulator.resumeSimulation(TestShops.shop(8, 60, 21, 0.8), new SimulationOptions(), checkpointFile,
+                new SimulationResults(0));
+    }
+}
@@ -0,0 +1,83 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SimulationExecutorTest {
+
+    @Test
+    public void resultsMatchDirectRuns() throws Exception {
+        List<CompletableFuture<SimulationResults>> futures = new ArrayList<>();
+        try (SimulationExecutor executor = new SimulationExecutor(16, 100000)) {
+            for (int seed = 0; seed < 200; seed++)
+                futures.add(executor.submit(TestShops.shop(3, 30, seed)));
+            for (int seed = 0; seed < 200; seed++) {
+                SimulationResults expected = MachineShopSimulator.runSimulation(TestShops.shop(3, 30, seed));
+                SimulationResults actual = futures.get(seed).get();
+                assertEquals(expected.getFinishTime(), actual.getFinishTime());
+                assertArrayEquals(expected.getTotalWaitTimePerMachine(), actual.getTotalWaitTimePerMachine());
+            }
+        }
+    }
+
+    /** counts the simulations running at once */
+    private static class Concurrency implements SimulationListener {
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger mostRunning = new AtomicInteger();
+
+        @Override
+        public void simulationStarted(int numMachines) {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.yield();
+        }
+
+        @Override
+        public void simulationFinished(int finishTime) {
+            running.decrementAndGet();
+        }
+    }
+
+    @Test
+    public void simulationsInFlightAreLimited() throws Exception {
+        Concurrency concurrency = new Concurrency();
+        SimulationOptions options = new SimulationOptions();
+        options.setListener(concurrency);
+        List<CompletableFuture<SimulationResults>> futures = new ArrayList<>();
+        try (SimulationExecutor executor = new SimulationExecutor(3, 100000)) {
+            for (int seed = 0; seed < 100; seed++)
+                futures.add(executor.submit(TestShops.shop(3, 30, seed), options));
+        }
+        for (CompletableFuture<SimulationResults> future : futures)
+            assertTrue(future.isDone() && !future.isCompletedExceptionally());
+        assertTrue(concurrency.mostRunning.get() <= 3);
+    }
+
+    @Test
+    public void failuresCompleteTheFutureAndFreeTheirSlot() throws Exception {
+        SimulationOptions failing = new SimulationOptions();
+        failing.setListener(new SimulationListener() {
+            @Override
+            public void simulationStarted(int numMachines) {
+                throw new IllegalStateException("listener failed");
+            }
+        });
+        try (SimulationExecutor executor = new SimulationExecutor(1, 10)) {
+            CompletableFuture<SimulationResults> failed = executor.submit(TestShops.shop(3, 30, 1), failing);
+            try {
+                failed.get();
+                fail("expected the simulation to fail");
+            } catch (ExecutionException e) {
+                assertEquals("listener failed", e.getCause().getMessage());
+            }
+            // a specification bigger than the size limit still runs, on its own
+            assertNotNull(executor.submit(TestShops.shop(3, 30, 2)).get());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SimulationServerTest {
+
+    private SimulationServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new SimulationServer(0, 2);
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    private static String expectedOutput(SimulationSpecification specification) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MachineShopSimulator.runSimulation(specification, new SimulationOptions(), new TextResultSink(out));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /** @return the specification in the text format read by SpecificationReader */
+    private static byte[] text(SimulationSpecification specification) {
+        StringBuilder text = new StringBuilder();
+        text.append(specification.getNumMachines()).append(' ').append(specification.getNumJobs()).append('\n');
+        for (int p = 1; p <= specification.getNumMachines(); p++)
+            text.append(specification.getChangeOverTimes(p)).append(' ');
+        text.append('\n');
+        for (int i = 1; i <= specification.getNumJobs(); i++) {
+            int[] specificationsForTasks = specification.getSpecificationsForTasks(i);
+            text.append(specification.getNumTasks(i)).append('\n');
+            for (int j = 1; j < specificationsForTasks.length; j++)
+                text.append(specificationsForTasks[j]).append(' ');
+            text.append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] binary(SimulationSpecification specification) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySpecification.write(specification, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void answersEveryRequestOnOneConnection() throws IOException {
+        int numRequests = 30;
+        String[] expected = new String[numRequests];
+        SimulationClient.Response[] responses = new SimulationClient.Response[numRequests];
+        try (SimulationClient client = new SimulationClient(server.getPort())) {
+            for (int i = 0; i < numRequests; i++) {
+                SimulationSpecification specification = TestShops.shop(5, 40, i);
+                expected[i] = expectedOutput(specification);
+                // alternate the text and binary formats
+                byte[] request = i % 2 == 0
+                        ? text(specification)
+                        : binary(specification);
+                assertEquals(i, client.send(request));
+            }
+            client.finishSending();
+            for (int i = 0; i < numRequests; i++) {
+                SimulationClient.Response response = client.receive();
+                assertNull(responses[response.getRequestNumber()]);
+                responses[response.getRequestNumber()] = response;
+            }
+        }
+        for (int i = 0; i < numRequests; i++) {
+            assertEquals(SimulationServer.OK, responses[i].getStatus());
+            assertTrue(responses[i].getLatencyNanos() > 0);
+            assertEquals(expected[i], responses[i].getOutput());
+        }
+    }
+
+    @Test
+    public void badSpecificationGetsItsErrorAndOthersStillRun() throws IOException {
+        try (SimulationClient client = new SimulationClient(server.getPort())) {
+            client.send("2 1\n0 0\n1\n3 1\n".getBytes(StandardCharsets.US_ASCII));
+            client.send("1 1\n0\n1\n1 4\n".getBytes(StandardCharsets.US_ASCII));
+            client.finishSending();
+            SimulationClient.Response[] responses = new SimulationClient.Response[2];
+            for (int i = 0; i < 2; i++) {
+                SimulationClient.Response response = client.receive();
+                responses[response.getRequestNumber()] = response;
+            }
+            assertEquals(SimulationServer.INPUT_ERROR, responses[0].getStatus());
+            assertEquals(MachineShopSimulator.BAD_MACHINE_NUMBER_OR_TASK_TIME, responses[0].getOutput());
+            assertEquals(SimulationServer.OK, responses[1].getStatus());
+            assertTrue(responses[1].getOutput().startsWith("Job 1 has completed at 4 Total wait was 0"));
+        }
+    }
+
+    @Test
+    public void oversizedRequestDropsOnlyItsConnection() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            new DataOutputStream(socket.getOutputStream()).writeInt(Integer.MAX_VALUE);
+            assertEquals(-1, socket.getInputStream().read());
+        }
+        try (SimulationClient client = new SimulationClient(server.getPort())) {
+            client.send(binary(TestShops.shop(5, 40, 1)));
+            client.finishSending();
+            assertEquals(expectedOutput(TestShops.shop(5, 40, 1)), client.receive().getOutput());
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void clientThatStopsReadingHoldsUpOnlyItself() throws IOException, InterruptedException {
+        // one task per job, so a small request gets many socket buffers of output
+        WorkloadGenerator generator = new WorkloadGenerator(2, 300000);
+        generator.setTasksPerJob(random -> 1);
+        byte[] request = binary(generator.generate());
+        try (SimulationServer oneWorker = new SimulationServer(0, 1);
+             Socket stalled = new Socket(InetAddress.getLoopbackAddress(), oneWorker.getPort())) {
+            oneWorker.start();
+            DataOutputStream out = new DataOutputStream(stalled.getOutputStream());
+            out.writeInt(request.length);
+            out.write(request);
+            out.flush();
+            // the answer has started coming; never read it
+            while (stalled.getInputStream().available() == 0)
+                Thread.sleep(10);
+            try (SimulationClient client = new SimulationClient(oneWorker.getPort())) {
+                client.send(binary(TestShops.shop(5, 40, 1)));
+                client.finishSending();
+                assertEquals(expectedOutput(TestShops.shop(5, 40, 1)), client.receive().getOutput());
+            }
+        }
+    }
+
+    @Test
+    public void errorsInARunAreReportedAsFailures() throws IOException {
+        SimulationOptions options = new SimulationOptions();
+        options.setListener(new SimulationListener() {
+            @Override
+            public void simulationStarted(int numMachines) {
+                throw new OutOfMemoryError("no room for the run");
+            }
+        });
+        try (SimulationServer failing = new SimulationServer(0, 1, SimulationServer.DEFAULT_MAX_REQUEST_SIZE, options)) {
+            failing.start();
+            try (SimulationClient client = new SimulationClient(failing.getPort())) {
+                client.send(binary(TestShops.shop(5, 40, 1)));
+                client.send(binary(TestShops.shop(5, 40, 2)));
+                client.finishSending();
+                for (int i = 0; i < 2; i++) {
+                    SimulationClient.Response response = client.receive();
+                    assertEquals(SimulationServer.FAILED, response.getStatus());
+                    assertEquals("no room for the run", response.getOutput());
+                }
+            }
+        }
+    }
+
+    @Test(timeout = 60000, expected = NoSuchFileException.class)
+    public void clientStopsAtAMissingFile() throws IOException {
+        Path missing = Files.createTempFile("simulation", ".input");
+        Files.delete(missing);
+        SimulationClient.main(new String[] {Integer.toString(server.getPort()), missing.toString()});
+    }
+}
@@ -0,0 +1,80 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SimulationSpecificationTest {
+
+    private static SimulationSpecification twoJobs() {
+        SimulationSpecification specification = new SimulationSpecification();
+        specification.setNumMachines(2);
+        specification.setNumJobs(2);
+        specification.setChangeOverTimes(new int[] {0, 1, 1});
+        Job[] jobs = new Job[3];
+        jobs[1] = new Job(1);
+        jobs[1].setSpecificationsForTasks(new int[] {0, 1, 3, 2, 4});
+        jobs[1].releaseTime = 5;
+        jobs[2] = new Job(2);
+        jobs[2].setSpecificationsForTasks(new int[] {0, 2, 7});
+        jobs[2].dueDate = 9;
+        specification.setJobs(jobs);
+        return specification;
+    }
+
+    @Test
+    public void jobsArePackedInOrder() {
+        SimulationSpecification specification = twoJobs();
+        assertEquals(3, specification.getTotalTasks());
+        assertEquals(0, specification.getFirstTask(1));
+        assertEquals(2, specification.getFirstTask(2));
+        assertEquals(1, specification.getNumTasks(2));
+        assertEquals(2, specification.getTaskMachine(1));
+        assertEquals(7, specification.getTaskTime(2));
+        assertEquals(5, specification.getReleaseTime(1));
+        assertEquals(9, specification.getDueDate(2));
+        assertArrayEquals(new int[] {0, 1, 3, 2, 4}, specification.getSpecificationsForTasks(1));
+    }
+
+    @Test
+    public void createdJobsReadTheSpecificationInPlace() {
+        SimulationSpecification specification = twoJobs();
+        Job job = specification.createJob(1);
+        assertEquals(7, job.getRemainingWork());
+        assertEquals(1, job.getNextMachine());
+        assertEquals(3, job.removeNextTask());
+        assertEquals(2, job.getNextMachine());
+        assertEquals(4, job.getRemainingWork());
+        // running the job moves its cursor, not the specification's tasks
+        assertEquals(2, specification.getNumTasks(1));
+        assertEquals(1, specification.createJob(1).getNextMachine());
+    }
+
+    @Test
+    public void sharedJobsKeepTheirOwnReleaseTimesAndDueDates() {
+        SimulationSpecification base = twoJobs();
+        SimulationSpecification variant = new SimulationSpecification();
+        variant.setNumMachines(2);
+        variant.setNumJobs(2);
+        variant.setChangeOverTimes(new int[] {0, 2, 2});
+        variant.shareJobs(base);
+        assertEquals(5, variant.getReleaseTime(1));
+        assertEquals(9, variant.getDueDate(2));
+        variant.setReleaseTime(1, 8);
+        variant.setDueDate(2, 3);
+        assertEquals(5, base.getReleaseTime(1));
+        assertEquals(9, base.getDueDate(2));
+        assertEquals(2, variant.getTaskMachine(1));
+    }
+
+    @Test
+    public void runsLeaveTheSpecificationUnchanged() {
+        SimulationSpecification specification = twoJobs();
+        String before = specification.toString();
+        MachineShopSimulator.runSimulation(specification);
+        SimulationOptions options = new SimulationOptions();
+        options.setEngineKind(SimulationOptions.EngineKind.FLAT);
+        MachineShopSimulator.runSimulation(specification, options);
+        assertEquals(before, specification.toString());
+    }
+}
@@ -0,0 +1,107 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import utilities.RunningStatistics;
+
+public class SimulationStatisticsTest {
+
+    private static SimulationResults run(SimulationSpecification specification, SimulationStatistics statistics) {
+        SimulationOptions options = new SimulationOptions();
+        options.setListener(statistics);
+        return MachineShopSimulator.runSimulation(specification, options);
+    }
+
+    @Test
+    public void jobStatisticsMatchTheResults() {
+        SimulationSpecification specification = TestShops.shop(10, 2000, 3);
+        for (int i = 1; i <= specification.getNumJobs(); i++)
+            specification.setReleaseTime(i, i / 4);
+        SimulationStatistics statistics = new SimulationStatistics();
+        SimulationResults results = run(specification, statistics);
+
+        RunningStatistics expectedWait = new RunningStatistics();
+        RunningStatistics expectedFlow = new RunningStatistics();
+        for (Job job : results.getJobs()) {
+            expectedWait.add(job.totalWaitTime);
+            expectedFlow.add(job.completionTime - specification.getReleaseTime(job.getId()));
+        }
+        assertEquals(expectedWait.getCount(), statistics.getWaitTime().getCount());
+        assertEquals(expectedWait.getMean(), statistics.getWaitTime().getMean(), 1e-6);
+        assertEquals(expectedWait.getVariance(), statistics.getWaitTime().getVariance(), 1e-3);
+        assertEquals(expectedFlow.getMean(), statistics.getFlowTime().getMean(), 1e-6);
+        assertTrue(statistics.getFlowTimeQuantile(0) <= statistics.getFlowTimeQuantile(1));
+        assertTrue(statistics.getFlowTimeQuantile(2) <= expectedFlow.getMax());
+    }
+
+    /** both jobs start on machine 1 for 5, then move to machine 2 for 100 */
+    private static SimulationSpecification smallShop() {
+        SimulationSpecification specification = new SimulationSpecification();
+        specification.setNumMachines(2);
+        specification.setNumJobs(2);
+        specification.setChangeOverTimes(new int[] {0, 0, 0});
+        Job[] jobs = new Job[3];
+        for (int i = 1; i <= 2; i++) {
+            jobs[i] = new Job(i);
+            jobs[i].setSpecificationsForTasks(new int[] {0, 1, 5, 2, 100});
+        }
+        specification.setJobs(jobs);
+        return specification;
+    }
+
+    @Test
+    public void machineStatisticsOfASmallShop() {
+        SimulationStatistics statistics = new SimulationStatistics();
+        SimulationResults results = run(smallShop(), statistics);
+
+        assertEquals(205, results.getFinishTime());
+        assertEquals(10.0 / 205, statistics.getUtilization(1), 1e-9);
+        assertEquals(200.0 / 205, statistics.getUtilization(2), 1e-9);
+        // job 2 waits at machine 1 from 0 to 5 and at machine 2 from 10 to 105
+        assertEquals(5.0 / 205, statistics.getAverageQueueLength(1), 1e-9);
+        assertEquals(95.0 / 205, statistics.getAverageQueueLength(2), 1e-9);
+
+        StringWriter report = new StringWriter();
+        statistics.write(report);
+        assertTrue(report.toString().contains("Machine 2 average queue length 0.463 utilization 0.976"));
+    }
+
+    @Test
+    public void resumedRunCountsTheRestoredQueues() throws IOException {
+        Path checkpointFile = Files.createTempFile("simulation", ".checkpoint");
+        try {
+            // the last checkpoint is at 10, with job 2 waiting at machine 2
+            SimulationOptions options = new SimulationOptions();
+            options.setCheckpoint(checkpointFile, 4);
+            try {
+                MachineShopSimulator.runSimulation(smallShop(), options, new TextResultSink(new StringWriter()) {
+                    @Override
+                    public void jobCompleted(int jobId, int completionTime, int totalWaitTime) {
+                        throw new IllegalStateException("crash");
+                    }
+                });
+                fail("expected the run to crash");
+            } catch (IllegalStateException e) {
+                assertEquals("crash", e.getMessage());
+            }
+
+            SimulationStatistics statistics = new SimulationStatistics();
+            SimulationOptions resumeOptions = new SimulationOptions();
+            resumeOptions.setListener(statistics);
+            MachineShopSimulator.resumeSimulation(smallShop(), resumeOptions, checkpointFile, new SimulationResults(2));
+            assertEquals(205, statistics.getFinishTime());
+            // job 2 waits at machine 2 from 10 to 105, out of the 195 resumed
+            assertEquals(95.0 / 195, statistics.getAverageQueueLength(2), 1e-9);
+            assertEquals(0, statistics.getAverageQueueLength(1), 0);
+        } finally {
+            Files.delete(checkpointFile);
+        }
+    }
+}
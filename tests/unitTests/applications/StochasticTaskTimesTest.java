@@ -0,0 +1,137 @@
+package applications;
+
+import static applications.TestResults.assertSameResults;
+import static org.junit.Assert.*;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+public class StochasticTaskTimesTest {
+
+    private static SimulationOptions stochastic(long seed) {
+        TaskTimeDistribution[] distributions = new TaskTimeDistribution[5];
+        distributions[1] = TaskTimeDistribution.exponential(8);
+        distributions[2] = TaskTimeDistribution.lognormal(2, 0.5);
+        distributions[3] = TaskTimeDistribution.empirical(3, 4, 4, 9);
+        // machine 4 keeps the specified times
+        SimulationOptions options = new SimulationOptions();
+        options.setTaskTimeDistributions(distributions, seed);
+        return options;
+    }
+
+    @Test
+    public void runsWithTheSameSeedAgree() {
+        assertSameResults(MachineShopSimulator.runSimulation(TestShops.shop(4, 50, 5), stochastic(1)),
+                MachineShopSimulator.runSimulation(TestShops.shop(4, 50, 5), stochastic(1)));
+        assertNotEquals(MachineShopSimulator.runSimulation(TestShops.shop(4, 50, 5), stochastic(1)).getFinishTime(),
+                MachineShopSimulator.runSimulation(TestShops.shop(4, 50, 5), stochastic(2)).getFinishTime());
+    }
+
+    @Test
+    public void constantDistributionsMatchFixedTimes() {
+        SimulationSpecification shop = TestShops.shop(4, 50, 5);
+        int[] times = new int[shop.getTotalTasks()];
+        Arrays.fill(times, 6);
+        SimulationSpecification fixed = new SimulationSpecification();
+        fixed.setNumMachines(shop.getNumMachines());
+        fixed.setNumJobs(shop.getNumJobs());
+        int[] changeOverTimes = new int[shop.getNumMachines() + 1];
+        for (int p = 1; p <= shop.getNumMachines(); p++)
+            changeOverTimes[p] = shop.getChangeOverTimes(p);
+        fixed.setChangeOverTimes(changeOverTimes);
+        int[] firstTask = new int[shop.getNumJobs() + 2];
+        for (int i = 1; i <= shop.getNumJobs() + 1; i++)
+            firstTask[i] = shop.getFirstTask(i);
+        int[] machines = new int[shop.getTotalTasks()];
+        for (int task = 0; task < machines.length; task++)
+            machines[task] = shop.getTaskMachine(task);
+        fixed.setTasks(firstTask, machines, times);
+
+        TaskTimeDistribution[] distributions = new TaskTimeDistribution[shop.getNumMachines() + 1];
+        for (int p = 1; p <= shop.getNumMachines(); p++)
+            distributions[p] = TaskTimeDistribution.empirical(6);
+        SimulationOptions options = new SimulationOptions();
+        options.setTaskTimeDistributions(distributions, 3);
+        assertSameResults(MachineShopSimulator.runSimulation(fixed),
+                MachineShopSimulator.runSimulation(shop, options));
+    }
+
+    @Test
+    public void replicationsAreReproducibleAndDiffer() {
+        SimulationResults[] first = MachineShopSimulator.runReplications(TestShops.shop(4, 50, 5), stochastic(7), 8);
+        SimulationResults[] second = MachineShopSimulator.runReplications(TestShops.shop(4, 50, 5), stochastic(7), 8);
+        for (int r = 0; r < 8; r++)
+            assertSameResults(first[r], second[r]);
+        boolean differ = false;
+        for (int r = 1; r < 8; r++)
+            differ |= first[r].getFinishTime() != first[0].getFinishTime();
+        assertTrue(differ);
+    }
+
+    @Test
+    public void exponentialHasTheRightMean() {
+        TaskTimeDistribution distribution = TaskTimeDistribution.exponential(20);
+        SplittableRandom random = new SplittableRandom(11);
+        long total = 0;
+        for (int i = 0; i < 100000; i++)
+            total += distribution.sample(random);
+        assertEquals(20, total / 100000.0, 0.5);
+    }
+
+    /** @return a shop of two machines without change-overs and one job visiting machines in turn */
+    private static SimulationSpecification oneJob(int... machines) {
+        SimulationSpecification shop = new SimulationSpecification();
+        shop.setNumMachines(2);
+        shop.setNumJobs(1);
+        shop.setChangeOverTimes(new int[3]);
+        int[] times = new int[machines.length];
+        Arrays.fill(times, 1);
+        shop.setTasks(new int[] {0, 0, machines.length}, machines, times);
+        return shop;
+    }
+
+    private static SimulationOptions huge() {
+        TaskTimeDistribution[] distributions = new TaskTimeDistribution[3];
+        distributions[1] = distributions[2] = TaskTimeDistribution.exponential(1e300);
+        SimulationOptions options = new SimulationOptions();
+        options.setTaskTimeDistributions(distributions, 1);
+        return options;
+    }
+
+    @Test
+    public void extremeDrawsAreClamped() {
+        TaskTimeDistribution distribution = TaskTimeDistribution.lognormal(0, 1e6);
+        SplittableRandom random = new SplittableRandom(13);
+        boolean clamped = false;
+        for (int i = 0; i < 1000; i++) {
+            int time = distribution.sample(random);
+            assertTrue(time >= 1 && time <= TaskTimeDistribution.MAX_TASK_TIME);
+            clamped |= time == TaskTimeDistribution.MAX_TASK_TIME;
+        }
+        assertTrue(clamped);
+
+        SimulationResults results = MachineShopSimulator.runSimulation(oneJob(1, 2), huge());
+        assertEquals(2 * TaskTimeDistribution.MAX_TASK_TIME, results.getFinishTime());
+        assertArrayEquals(new int[3], results.getTotalWaitTimePerMachine());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void observedTimesMustNotPassTheLargestTaskTime() {
+        TaskTimeDistribution.empirical(3, TaskTimeDistribution.MAX_TASK_TIME + 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void drawsPastTheLargestTimeFail() {
+        MachineShopSimulator.runSimulation(oneJob(1, 2, 1), huge());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stochasticRunsCantBeCheckpointed() {
+        SimulationOptions options = stochastic(1);
+        options.setCheckpoint(Paths.get("unused"), 100);
+        MachineShopSimulator.runSimulation(TestShops.shop(4, 50, 5), options);
+    }
+}
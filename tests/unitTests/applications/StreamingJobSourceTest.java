@@ -0,0 +1,105 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.MyInputException;
+import utilities.IntegerScanner;
+
+public class StreamingJobSourceTest {
+
+    // 2 machines, 3 jobs; each job is: release time, number of tasks, tasks
+    private static final String SPECIFICATION = "2 3\n"
+            + "1 0\n"
+            + "0 2 1 3 2 2\n"
+            + "4 1 1 2\n"
+            + "4 2 2 5 1 1\n";
+
+    private PrintStream originalOut;
+
+    @Before
+    public void hidePrompts() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+    @After
+    public void restoreOut() {
+        System.setOut(originalOut);
+    }
+
+    private static SpecificationReader readerFor(String text) {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        return new SpecificationReader(new IntegerScanner(bytes), true);
+    }
+
+    @Test
+    public void streamedJobsMatchInMemorySpecification() {
+        SimulationSpecification specification = readerFor(SPECIFICATION).readSpecification();
+        assertEquals(4, specification.getReleaseTime(3));
+        SimulationResults expected = MachineShopSimulator.runSimulation(specification);
+
+        StreamingJobSource jobSource = new StreamingJobSource(readerFor(SPECIFICATION));
+        SimulationResults actual = new SimulationResults(0);
+        MachineShopSimulator.runSimulation(jobSource.getShop(), jobSource,
+                new SimulationOptions(), actual);
+
+        assertEquals(expected.getFinishTime(), actual.getFinishTime());
+        assertArrayEquals(expected.getTotalWaitTimePerMachine(), actual.getTotalWaitTimePerMachine());
+        Job[] expectedJobs = expected.getJobs();
+        Job[] actualJobs = actual.getJobs();
+        assertEquals(3, actualJobs.length);
+        for (int i = 0; i < expectedJobs.length; ++i) {
+            assertEquals(expectedJobs[i].getId(), actualJobs[i].getId());
+            assertEquals(expectedJobs[i].completionTime, actualJobs[i].completionTime);
+            assertEquals(expectedJobs[i].totalWaitTime, actualJobs[i].totalWaitTime);
+        }
+    }
+
+    /**
+     * Job 1 runs on machine 1 from 0 to 3 and on machine 2 from 3 to 5.
+     * Jobs 2 and 3 arrive at 4; job 2 starts on machine 1 as soon as
+     * its change-over ends, at 4, and job 3 waits until 5 for machine 2
+     * to finish job 1. Job 3 then runs on machine 2 from 5 to 10 and on
+     * machine 1 from 10 to 11.
+     */
+    @Test
+    public void jobsStartNoEarlierThanTheirReleaseTimes() {
+        SimulationResults results = MachineShopSimulator.runSimulation(
+                readerFor(SPECIFICATION).readSpecification());
+        Job[] jobs = results.getJobs();
+        assertEquals(1, jobs[0].getId());
+        assertEquals(5, jobs[0].completionTime);
+        assertEquals(0, jobs[0].totalWaitTime);
+        assertEquals(2, jobs[1].getId());
+        assertEquals(6, jobs[1].completionTime);
+        assertEquals(0, jobs[1].totalWaitTime);
+        assertEquals(3, jobs[2].getId());
+        assertEquals(11, jobs[2].completionTime);
+        assertEquals(1, jobs[2].totalWaitTime);
+    }
+
+    @Test
+    public void decreasingReleaseTimesAreRejected() {
+        String outOfOrder = "1 2\n0\n5 1 1 1\n3 1 1 1\n";
+        StreamingJobSource jobSource = new StreamingJobSource(readerFor(outOfOrder));
+        try {
+            jobSource.nextJob();
+            fail("A job released before the previous one should have thrown an exception.");
+        } catch (MyInputException e) {
+            assertEquals(MachineShopSimulator.RELEASE_TIMES_MUST_NOT_DECREASE, e.getMessage());
+        }
+    }
+}
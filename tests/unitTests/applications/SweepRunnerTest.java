@@ -0,0 +1,109 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.IntegerScanner;
+
+public class SweepRunnerTest {
+
+    // 3 machines, 3 jobs
+    private static final String SPECIFICATION = "3 3\n"
+            + "2 3 1\n"
+            + "3 1 4 2 2 3 1\n"
+            + "2 2 3 3 2\n"
+            + "2 1 5 3 3\n";
+
+    private PrintStream originalOut;
+    private SimulationSpecification base;
+
+    @Before
+    public void readBase() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+        ByteBuffer bytes = ByteBuffer.wrap(SPECIFICATION.getBytes(StandardCharsets.US_ASCII));
+        base = new SpecificationReader(new IntegerScanner(bytes)).readSpecification();
+    }
+
+    @After
+    public void restoreOut() {
+        System.setOut(originalOut);
+    }
+
+    private static ParameterSweep sweep() {
+        ParameterSweep changeOvers = new ParameterSweep()
+                .addVariant("base", ParameterSweep.unchanged())
+                .addVariant("no change-over", ParameterSweep.allChangeOverTimes(0))
+                .addVariant("double change-over", ParameterSweep.scaleChangeOverTimes(2))
+                .addVariant("machine 2 slow", ParameterSweep.changeOverTime(2, 10));
+        ParameterSweep jobMixes = new ParameterSweep()
+                .addVariant("as given", ParameterSweep.unchanged())
+                .addVariant("twice job 1", ParameterSweep.jobMix(0, 2, 1, 1));
+        return changeOvers.cross(jobMixes);
+    }
+
+    @Test
+    public void resultsMatchSeparateRuns() {
+        ParameterSweep sweep = sweep();
+        SweepReport report = new SweepRunner().run(base, sweep);
+
+        assertEquals(8, report.getResults().size());
+        for (int i = 0; i < sweep.getNumVariants(); i++) {
+            SimulationResults expected = MachineShopSimulator.runSimulation(sweep.createVariant(base, i));
+            SweepResult actual = report.getResult(i);
+            assertEquals(i, actual.getVariantIndex());
+            assertEquals(sweep.getVariantName(i), actual.getVariantName());
+            assertEquals(expected.getFinishTime(), actual.getFinishTime());
+            assertArrayEquals(expected.getNumTasksPerMachine(), actual.getNumTasksPerMachine());
+            assertArrayEquals(expected.getTotalWaitTimePerMachine(), actual.getTotalWaitTimePerMachine());
+        }
+    }
+
+    @Test
+    public void reportDoesNotDependOnNumberOfThreads() {
+        ParameterSweep sweep = sweep();
+        StringWriter oneThread = new StringWriter();
+        new SweepRunner(new ForkJoinPool(1), new SimulationOptions()).run(base, sweep).write(oneThread);
+        StringWriter fourThreads = new StringWriter();
+        new SweepRunner(new ForkJoinPool(4), new SimulationOptions()).run(base, sweep).write(fourThreads);
+        assertEquals(oneThread.toString(), fourThreads.toString());
+    }
+
+    @Test
+    public void variantsLeaveBaseUnchanged() {
+        String before = base.toString();
+        new SweepRunner().run(base, sweep());
+        assertEquals(before, base.toString());
+    }
+
+    @Test
+    public void jobMixRepeatsJobs() {
+        SimulationSpecification variant = ParameterSweep.jobMix(0, 2, 0, 1).apply(base);
+        assertEquals(3, variant.getNumJobs());
+        assertArrayEquals(base.getSpecificationsForTasks(1), variant.getSpecificationsForTasks(2));
+        assertArrayEquals(base.getSpecificationsForTasks(3), variant.getSpecificationsForTasks(3));
+        assertEquals(3, variant.createJob(3).getId());
+    }
+
+    @Test
+    public void changeOverScalingRounds() {
+        SimulationSpecification variant = ParameterSweep.scaleChangeOverTimes(1.5).apply(base);
+        assertEquals(3, variant.getChangeOverTimes(1));
+        assertEquals(5, variant.getChangeOverTimes(2));
+        assertEquals(2, variant.getChangeOverTimes(3));
+    }
+}
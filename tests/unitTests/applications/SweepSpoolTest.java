@@ -0,0 +1,106 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SweepSpoolTest {
+
+    private Path directory;
+    private SimulationSpecification base;
+
+    @Before
+    public void createSpool() throws IOException {
+        directory = Files.createTempDirectory("spool");
+        base = TestShops.shop(5, 60, 21);
+    }
+
+    @After
+    public void deleteSpool() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private static ParameterSweep sweep() {
+        return new ParameterSweep()
+                .addVariant("base", ParameterSweep.unchanged())
+                .addVariant("no change-over", ParameterSweep.allChangeOverTimes(0))
+                .addVariant("double change-over", ParameterSweep.scaleChangeOverTimes(2))
+                .addVariant("machine 2 slow", ParameterSweep.changeOverTime(2, 10))
+                .addVariant("twice job 1", ParameterSweep.jobMix(copies(60, 1, 2)));
+    }
+
+    /** @return one copy of each of numJobs jobs except theJob, which gets copies */
+    private static int[] copies(int numJobs, int theJob, int copies) {
+        int[] result = new int[numJobs + 1];
+        for (int i = 1; i <= numJobs; i++)
+            result[i] = i == theJob ? copies : 1;
+        return result;
+    }
+
+    private static String text(SweepReport report) {
+        StringWriter out = new StringWriter();
+        report.write(out);
+        return out.toString();
+    }
+
+    @Test
+    public void workersTogetherMatchSweepRunner() throws IOException {
+        SweepSpool spool = new SweepSpool(directory);
+        spool.submit(base, sweep());
+        assertFalse(spool.isComplete());
+        int numRun = spool.work("a", new SimulationOptions()) + spool.work("b", new SimulationOptions());
+        assertEquals(5, numRun);
+        assertTrue(spool.isComplete());
+        assertEquals(text(new SweepRunner().run(base, sweep())), text(spool.merge()));
+    }
+
+    @Test
+    public void dueDatesReachTheWorkers() throws IOException {
+        Random random = new Random(4);
+        for (int i = 1; i <= base.getNumJobs(); i++) {
+            base.setReleaseTime(i, random.nextInt(100));
+            base.setDueDate(i, random.nextInt(1000));
+        }
+        SimulationOptions options = new SimulationOptions();
+        options.setDispatchPolicy(DispatchPolicy.EDD);
+        SweepSpool spool = new SweepSpool(directory);
+        spool.submit(base, sweep());
+        assertEquals(5, spool.work("a", options));
+        assertEquals(text(new SweepRunner(ForkJoinPool.commonPool(), options).run(base, sweep())),
+                text(spool.merge()));
+    }
+
+    @Test
+    public void claimsOfADeadWorkerAreReclaimed() throws IOException {
+        SweepSpool spool = new SweepSpool(directory);
+        spool.submit(base, sweep());
+        assertNotNull(spool.claim(directory.resolve("pending").resolve("00000003"), "dead"));
+        assertNull(spool.claim(directory.resolve("pending").resolve("00000003"), "other"));
+        assertEquals(4, spool.work("a", new SimulationOptions()));
+        assertFalse(spool.isComplete());
+
+        assertEquals(1, spool.reclaim("dead"));
+        assertEquals(1, spool.work("a", new SimulationOptions()));
+        assertTrue(spool.isComplete());
+        assertEquals(text(new SweepRunner().run(base, sweep())), text(spool.merge()));
+    }
+
+    @Test
+    public void workerProcessesRunTheSweep() throws IOException, InterruptedException {
+        SweepReport report = new SweepSpool(directory).run(base, sweep(), 2);
+        assertEquals(text(new SweepRunner().run(base, sweep())), text(report));
+    }
+}
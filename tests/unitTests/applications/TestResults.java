@@ -0,0 +1,28 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+/** Comparisons of simulation results for the tests. */
+final class TestResults {
+
+    private TestResults() {
+    }
+
+    /**
+     * assert that actual has expected's finish time, tasks and wait per
+     * machine, and completed jobs in the same order with the same times
+     */
+    static void assertSameResults(SimulationResults expected, SimulationResults actual) {
+        assertEquals(expected.getFinishTime(), actual.getFinishTime());
+        assertArrayEquals(expected.getNumTasksPerMachine(), actual.getNumTasksPerMachine());
+        assertArrayEquals(expected.getTotalWaitTimePerMachine(), actual.getTotalWaitTimePerMachine());
+        Job[] expectedJobs = expected.getJobs();
+        Job[] actualJobs = actual.getJobs();
+        assertEquals(expectedJobs.length, actualJobs.length);
+        for (int i = 0; i < expectedJobs.length; i++) {
+            assertEquals(expectedJobs[i].getId(), actualJobs[i].getId());
+            assertEquals(expectedJobs[i].completionTime, actualJobs[i].completionTime);
+            assertEquals(expectedJobs[i].totalWaitTime, actualJobs[i].totalWaitTime);
+        }
+    }
+}
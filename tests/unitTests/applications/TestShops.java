@@ -0,0 +1,21 @@
+package applications;
+
+/** Generated shops for the unit tests, the same every run for the same arguments. */
+final class TestShops {
+
+    private TestShops() {
+    }
+
+    /** @return a shop from a WorkloadGenerator with its default distributions and the given seed */
+    static SimulationSpecification shop(int numMachines, int numJobs, long seed) {
+        return shop(numMachines, numJobs, seed, 0);
+    }
+
+    /** @return a shop as for shop(numMachines, numJobs, seed), with machines chosen with routingSkew */
+    static SimulationSpecification shop(int numMachines, int numJobs, long seed, double routingSkew) {
+        WorkloadGenerator generator = new WorkloadGenerator(numMachines, numJobs);
+        generator.setSeed(seed);
+        generator.setRoutingSkew(routingSkew);
+        return generator.generate();
+    }
+}
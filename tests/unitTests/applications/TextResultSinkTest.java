@@ -0,0 +1,28 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class TextResultSinkTest {
+
+    @Test
+    public void writesTheSimulatorsTextFormat() {
+        StringWriter output = new StringWriter();
+        TextResultSink sink = new TextResultSink(output);
+        sink.jobCompleted(2, 17, 0);
+        sink.jobCompleted(10, 2147483647, -2147483648);
+        sink.simulationCompleted(2147483647, new int[] { 0, 3 }, new int[] { 0, 120 });
+
+        String n = System.lineSeparator();
+        String expected = "Job 2 has completed at 17 Total wait was 0" + n
+                + "Job 10 has completed at 2147483647 Total wait was -2147483648" + n
+                + "Finish time = 2147483647" + n
+                + "Machine 1 completed 3 tasks" + n
+                + "The total wait time was 120" + n
+                + n;
+        assertEquals(expected, output.toString());
+    }
+}
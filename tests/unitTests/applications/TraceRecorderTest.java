@@ -0,0 +1,98 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.MyInputException;
+
+public class TraceRecorderTest {
+
+    private Path traceFile;
+
+    @Before
+    public void createTraceFile() throws IOException {
+        traceFile = Files.createTempFile("simulation", ".trace");
+    }
+
+    @After
+    public void deleteTraceFile() throws IOException {
+        Files.deleteIfExists(traceFile);
+    }
+
+    /** run with small buffers and smaller regions, so buffers are written in parts */
+    private SimulationResults recordRun(SimulationSpecification specification) throws IOException {
+        TraceRecorder recorder = new TraceRecorder(traceFile, 1000, 360);
+        SimulationOptions options = new SimulationOptions();
+        options.setListener(recorder);
+        return MachineShopSimulator.runSimulation(specification, options);
+    }
+
+    @Test
+    public void traceHoldsEveryTask() throws IOException {
+        SimulationSpecification specification = TestShops.shop(7, 3000, 18, 0.6);
+        SimulationResults results = recordRun(specification);
+        try (TraceReader reader = new TraceReader(traceFile)) {
+            assertEquals(specification.getNumMachines(), reader.getNumMachines());
+            assertEquals(results.getFinishTime(), reader.getFinishTime());
+
+            int[] tasksStarted = new int[specification.getNumMachines() + 1];
+            int[] lastTime = {0};
+            reader.scan(0, Integer.MAX_VALUE, (time, type, theMachine, theJob, value) -> {
+                assertTrue(time >= lastTime[0]);
+                lastTime[0] = time;
+                if (type == TraceRecorder.TASK_STARTED)
+                    tasksStarted[theMachine]++;
+                return true;
+            });
+            assertArrayEquals(results.getNumTasksPerMachine(), tasksStarted);
+        }
+    }
+
+    @Test
+    public void machineQueriesMatchAFullScan() throws IOException {
+        SimulationResults results = recordRun(TestShops.shop(7, 3000, 18, 0.6));
+        int from = results.getFinishTime() / 3;
+        int to = 2 * results.getFinishTime() / 3;
+        try (TraceReader reader = new TraceReader(traceFile)) {
+            double[] utilization = reader.utilization(from, to);
+            for (int p = 1; p <= reader.getNumMachines(); p++) {
+                int theMachine = p;
+                // busy time in [from, to) from every record of the whole trace
+                long[] expectedBusy = {0};
+                int[] expectedTasks = {0};
+                reader.scan(0, Integer.MAX_VALUE, (time, type, machine, theJob, value) -> {
+                    if (machine == theMachine && type == TraceRecorder.TASK_STARTED && time < to && time + value > from) {
+                        expectedBusy[0] += Math.min(time + value, to) - Math.max(time, from);
+                        expectedTasks[0]++;
+                    }
+                    return true;
+                });
+                assertEquals((double) expectedBusy[0] / (to - from), reader.utilization(p, from, to), 1e-12);
+                assertEquals((double) expectedBusy[0] / (to - from), utilization[p], 1e-12);
+
+                int[] lastStart = {Integer.MIN_VALUE};
+                int[] tasks = {0};
+                reader.forEachTask(p, from, to, (theJob, start, finish) -> {
+                    assertTrue(start < to && finish > from);
+                    assertTrue(start > lastStart[0]);
+                    lastStart[0] = start;
+                    tasks[0]++;
+                });
+                assertEquals(expectedTasks[0], tasks[0]);
+            }
+        }
+    }
+
+    @Test(expected = MyInputException.class)
+    public void otherFilesAreRejected() throws IOException {
+        Files.write(traceFile, new byte[64]);
+        new TraceReader(traceFile).close();
+    }
+}
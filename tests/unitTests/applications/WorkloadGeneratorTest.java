@@ -0,0 +1,105 @@
+package applications;
+
+import static org.junit.Assert.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.IntegerScanner;
+
+public class WorkloadGeneratorTest {
+
+    private PrintStream originalOut;
+
+    @Before
+    public void hidePrompts() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+    @After
+    public void restoreOut() {
+        System.setOut(originalOut);
+    }
+
+    private static WorkloadGenerator generator(long seed) {
+        WorkloadGenerator generator = new WorkloadGenerator(20, 50);
+        generator.setSeed(seed);
+        generator.setTasksPerJob(IntDistribution.geometric(1, 4));
+        generator.setRoutingSkew(1.2);
+        return generator;
+    }
+
+    @Test
+    public void writtenTextReadsBackAsGeneratedSpecification() {
+        StringWriter text = new StringWriter();
+        generator(7).write(text);
+        ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII));
+        SimulationSpecification read = new SpecificationReader(new IntegerScanner(bytes)).readSpecification();
+        assertEquals(generator(7).generate().toString(), read.toString());
+    }
+
+    @Test
+    public void sameSeedGivesSameShop() {
+        assertEquals(generator(3).generate().toString(), generator(3).generate().toString());
+        assertNotEquals(generator(3).generate().toString(), generator(4).generate().toString());
+    }
+
+    @Test
+    public void valuesComeFromTheDistributions() {
+        WorkloadGenerator generator = new WorkloadGenerator(5, 100);
+        generator.setTasksPerJob(IntDistribution.constant(3));
+        generator.setTaskTime(IntDistribution.uniform(10, 12));
+        generator.setChangeOverTime(IntDistribution.constant(0));
+        SimulationSpecification specification = generator.generate();
+        for (int p = 1; p <= 5; p++)
+            assertEquals(0, specification.getChangeOverTimes(p));
+        for (int i = 1; i <= 100; i++) {
+            int[] tasks = specification.getSpecificationsForTasks(i);
+            assertEquals(3, specification.getNumTasks(i));
+            for (int j = 1; j <= 3; j++) {
+                assertTrue(tasks[2 * j - 1] >= 1 && tasks[2 * j - 1] <= 5);
+                assertTrue(tasks[2 * j] >= 10 && tasks[2 * j] <= 12);
+            }
+        }
+    }
+
+    @Test
+    public void taskTimesCanComeFromATaskTimeDistribution() {
+        WorkloadGenerator generator = new WorkloadGenerator(5, 2000);
+        generator.setTaskTime(TaskTimeDistribution.exponential(40));
+        SimulationSpecification specification = generator.generate();
+        long total = 0;
+        for (int task = 0; task < specification.getTotalTasks(); task++) {
+            assertTrue(specification.getTaskTime(task) >= 1);
+            total += specification.getTaskTime(task);
+        }
+        assertEquals(40, (double) total / specification.getTotalTasks(), 2);
+    }
+
+    @Test
+    public void routingSkewFavorsLowNumberedMachines() {
+        WorkloadGenerator generator = new WorkloadGenerator(100, 1000);
+        generator.setRoutingSkew(1.5);
+        SimulationSpecification specification = generator.generate();
+        int[] tasksOnMachine = new int[101];
+        for (int i = 1; i <= 1000; i++) {
+            int[] tasks = specification.getSpecificationsForTasks(i);
+            for (int j = 1; j < tasks.length; j += 2)
+                tasksOnMachine[tasks[j]]++;
+        }
+        assertTrue(tasksOnMachine[1] > tasksOnMachine[2]);
+        assertTrue(tasksOnMachine[2] > 10 * tasksOnMachine[100]);
+    }
+}
@@ -0,0 +1,54 @@
+package dataStructures;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ArrayQueueTest {
+
+    @Test
+    public void testQueueOperations() {
+        ArrayQueue queue = new ArrayQueue();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.getFrontElement());
+        assertNull(queue.getRearElement());
+        final String firstItem = "First item";
+        final String secondItem = "Second item";
+        queue.put(firstItem);
+        assertEquals(firstItem, queue.getFrontElement());
+        assertEquals(firstItem, queue.getRearElement());
+        queue.put(secondItem);
+        assertEquals(firstItem, queue.getFrontElement());
+        assertEquals(secondItem, queue.getRearElement());
+        assertEquals(2, queue.size());
+        assertEquals(firstItem, queue.remove());
+        assertEquals(secondItem, queue.remove());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.remove());
+    }
+
+    /**
+     * Interleave puts and removes so the front wraps around the end
+     * of the array several times while it grows.
+     */
+    @Test
+    public void keepsFifoOrderAcrossWrapAndGrowth() {
+        ArrayQueue queue = new ArrayQueue(2);
+        int nextPut = 0;
+        int nextRemove = 0;
+        for (int round = 1; round <= 50; ++round) {
+            for (int i = 0; i < round; ++i) {
+                queue.put(nextPut++);
+            }
+            for (int i = 0; i < round / 2; ++i) {
+                assertEquals(nextRemove++, queue.remove());
+            }
+            assertEquals(nextPut - nextRemove, queue.size());
+            assertEquals(nextPut - 1, queue.getRearElement());
+        }
+        while (!queue.isEmpty()) {
+            assertEquals(nextRemove++, queue.remove());
+        }
+        assertEquals(nextPut, nextRemove);
+    }
+}
@@ -0,0 +1,76 @@
+package dataStructures;
+
+import static org.junit.Assert.*;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MinHeapQueueTest {
+
+    private static final Comparator<Object> BY_VALUE = (a, b) -> Integer.compare((Integer) a, (Integer) b);
+
+    @Test
+    public void testQueueOperations() {
+        MinHeapQueue queue = new MinHeapQueue(BY_VALUE);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.getFrontElement());
+        assertNull(queue.getRearElement());
+        assertNull(queue.remove());
+        queue.put(5);
+        queue.put(2);
+        queue.put(9);
+        queue.put(7);
+        assertEquals(4, queue.size());
+        assertEquals(2, queue.getFrontElement());
+        assertEquals(9, queue.getRearElement());
+        assertEquals(2, queue.remove());
+        assertEquals(5, queue.remove());
+        assertEquals(7, queue.remove());
+        assertEquals(9, queue.remove());
+        assertTrue(queue.isEmpty());
+    }
+
+    /** equal elements must come out in the order they went in */
+    @Test
+    public void equalElementsLeaveInPutOrder() {
+        // order strings by length only
+        MinHeapQueue queue = new MinHeapQueue((a, b) -> ((String) a).length() - ((String) b).length(), 1);
+        String[] puts = {"bb", "a1", "ccc", "a2", "bb2", "a3", "b", "a4"};
+        for (String s : puts)
+            queue.put(s);
+        String[] expected = {"b", "bb", "a1", "a2", "a3", "a4", "ccc", "bb2"};
+        for (String s : expected)
+            assertEquals(s, queue.remove());
+    }
+
+    @Test
+    public void allEqualIsFifo() {
+        MinHeapQueue queue = new MinHeapQueue((a, b) -> 0, 2);
+        for (int i = 0; i < 100; i++)
+            queue.put(i);
+        assertEquals(99, queue.getRearElement());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i, queue.remove());
+    }
+
+    /** interleave puts and removes against a sorted reference */
+    @Test
+    public void matchesSortedOrderUnderRandomOperations() {
+        Random random = new Random(16);
+        MinHeapQueue queue = new MinHeapQueue(BY_VALUE, 0);
+        java.util.PriorityQueue<Integer> reference = new java.util.PriorityQueue<>();
+        for (int step = 0; step < 20000; step++) {
+            if (reference.isEmpty() || random.nextInt(3) != 0) {
+                int value = random.nextInt(500);
+                queue.put(value);
+                reference.add(value);
+            } else {
+                assertEquals(reference.poll(), queue.remove());
+            }
+            assertEquals(reference.size(), queue.size());
+            assertEquals(reference.peek(), queue.getFrontElement());
+        }
+    }
+}
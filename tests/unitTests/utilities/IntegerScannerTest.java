@@ -0,0 +1,86 @@
+package utilities;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import exceptions.MyInputException;
+
+public class IntegerScannerTest {
+
+    private static IntegerScanner scannerFor(String text, int bufferSize) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return new IntegerScanner(Channels.newChannel(new ByteArrayInputStream(bytes)), bufferSize);
+    }
+
+    @Test
+    public void readsIntegersSeparatedByAnyWhitespace() {
+        IntegerScanner scanner = scannerFor("  12 -7\n\n+3\t0\r\n\f2147483647 -2147483648", 64);
+        assertEquals(12, scanner.readInteger());
+        assertEquals(-7, scanner.readInteger());
+        assertEquals(3, scanner.readInteger());
+        assertEquals(0, scanner.readInteger());
+        assertEquals(Integer.MAX_VALUE, scanner.readInteger());
+        assertEquals(Integer.MIN_VALUE, scanner.readInteger());
+    }
+
+    /**
+     * A two byte buffer splits nearly every token across refills and
+     * forces the buffer to grow for the longer ones.
+     */
+    @Test
+    public void tokensMaySpanBufferRefills() {
+        IntegerScanner scanner = scannerFor("123456 7 -89 0001000", 2);
+        assertEquals(123456, scanner.readInteger());
+        assertEquals(7, scanner.readInteger());
+        assertEquals(-89, scanner.readInteger());
+        assertEquals(1000, scanner.readInteger());
+    }
+
+    @Test
+    public void readsFromByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("5 6\n7".getBytes(StandardCharsets.US_ASCII));
+        IntegerScanner scanner = new IntegerScanner(buffer, 3);
+        assertEquals(5, scanner.readInteger());
+        assertEquals(6, scanner.readInteger());
+        assertEquals(7, scanner.readInteger());
+    }
+
+    @Test
+    public void endOfInputThrowsMyInputException() {
+        IntegerScanner scanner = scannerFor("4 \n ", 64);
+        assertEquals(4, scanner.readInteger());
+        try {
+            scanner.readInteger();
+            fail("Reading past the end of the input should have thrown an exception.");
+        } catch (MyInputException e) {
+            assertEquals("End of file", e.getMessage());
+        }
+    }
+
+    @Test
+    public void badTokensMatchIntegerParseInt() {
+        String[] badTokens = { "abc", "12x", "-", "+", "2147483648", "-2147483649", "99999999999", "1-2" };
+        for (String badToken : badTokens) {
+            String expectedMessage = null;
+            try {
+                Integer.parseInt(badToken);
+            } catch (NumberFormatException e) {
+                expectedMessage = e.getMessage();
+            }
+            try {
+                IntegerScanner scanner = scannerFor("1 " + badToken + " 2", 4);
+                scanner.readInteger();
+                scanner.readInteger();
+                fail("Reading \"" + badToken + "\" should have thrown an exception.");
+            } catch (NumberFormatException e) {
+                assertEquals(expectedMessage, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package utilities;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class P2QuantileTest {
+
+    private static double exactQuantile(double[] values, double p) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(p * sorted.length) - 1];
+    }
+
+    @Test
+    public void estimatesAreCloseOnLargeStreams() {
+        Random random = new Random(17);
+        double[] values = new double[100000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = -100 * Math.log(1 - random.nextDouble()); // exponential, mean 100
+        for (double p : new double[] {0.5, 0.95, 0.99}) {
+            P2Quantile quantile = new P2Quantile(p);
+            for (double value : values)
+                quantile.add(value);
+            double exact = exactQuantile(values, p);
+            assertEquals(exact, quantile.getQuantile(), 0.02 * exact);
+        }
+    }
+
+    @Test
+    public void smallStreamsAreExact() {
+        P2Quantile median = new P2Quantile(0.5);
+        median.add(9);
+        median.add(1);
+        median.add(5);
+        assertEquals(5, median.getQuantile(), 0);
+        assertTrue(Double.isNaN(new P2Quantile(0.5).getQuantile()));
+    }
+
+    @Test
+    public void fiveValuesAreExact() {
+        P2Quantile quantile = new P2Quantile(0.9);
+        for (int i = 5; i >= 1; i--)
+            quantile.add(i);
+        assertEquals(5, quantile.getQuantile(), 0);
+    }
+
+    @Test
+    public void estimateStaysWithinTheRange() {
+        P2Quantile quantile = new P2Quantile(0.99);
+        for (int i = 0; i < 1000; i++)
+            quantile.add(i % 10);
+        assertTrue(quantile.getQuantile() >= 0 && quantile.getQuantile() <= 9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quantileMustBeBetweenZeroAndOne() {
+        new P2Quantile(1);
+    }
+}
@@ -0,0 +1,47 @@
+package utilities;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class RunningStatisticsTest {
+
+    @Test
+    public void matchesTwoPassFormulas() {
+        double[] values = {4, 7, 13, 16, 1e9 + 4, 1e9 + 7};
+        RunningStatistics statistics = new RunningStatistics();
+        double sum = 0;
+        for (double value : values) {
+            statistics.add(value);
+            sum += value;
+        }
+        double mean = sum / values.length;
+        double squares = 0;
+        for (double value : values)
+            squares += (value - mean) * (value - mean);
+
+        assertEquals(values.length, statistics.getCount());
+        assertEquals(mean, statistics.getMean(), 1e-6);
+        assertEquals(squares / (values.length - 1), statistics.getVariance(), 1e-6 * squares);
+        assertEquals(4, statistics.getMin(), 0);
+        assertEquals(1e9 + 7, statistics.getMax(), 0);
+    }
+
+    @Test
+    public void largeCloseValuesKeepTheirVariance() {
+        RunningStatistics statistics = new RunningStatistics();
+        for (int i = 0; i < 1000; i++)
+            statistics.add(1e9 + (i % 2));
+        assertEquals(0.25 * 1000 / 999, statistics.getVariance(), 1e-9);
+    }
+
+    @Test
+    public void emptyStatisticsAreNaN() {
+        RunningStatistics statistics = new RunningStatistics();
+        assertTrue(Double.isNaN(statistics.getMean()));
+        assertTrue(Double.isNaN(statistics.getMin()));
+        statistics.add(3);
+        assertEquals(3, statistics.getMean(), 0);
+        assertTrue(Double.isNaN(statistics.getVariance()));
+    }
+}